@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/**
+ * JVM-wide cache of the class files and packages looked up by {@link JRJdtCompiler} while compiling report expressions.
+ * <p>
+ * Entries are kept per class loader, and dropped with it. For each class loader the parsed {@link ClassFileReader}s, the
+ * classes that were not found and the package lookups are kept in least recently used order, bounded by
+ * {@link #MAX_SIZE_PROPERTY}, so that the classes of the JDK and of JasperReports are read and parsed once for all
+ * compilations instead of on every lookup.
+ */
+public class ClassFileCache {
+
+    /** System property holding the maximum number of class and package lookups kept for each class loader. */
+    public static final String MAX_SIZE_PROPERTY = "org.bonitasoft.connectors.jasper.compiler.classCache.maxSize";
+
+    private static final int DEFAULT_MAX_SIZE = 2000;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final ClassFileCache INSTANCE = new ClassFileCache(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+
+    private final int maxSize;
+
+    private final Map<ClassLoader, LoaderEntries> loaders = new WeakHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    public ClassFileCache(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static ClassFileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the parsed class file of the given class, or null if the class loader has no such class
+     */
+    public ClassFileReader getClassFile(final ClassLoader classLoader, final String className) throws IOException, JRException,
+            ClassFormatException {
+        final LoaderEntries entries = getEntries(classLoader);
+        Object cached = entries.getType(className);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            cached = NOT_FOUND;
+            try (InputStream is = classLoader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+                if (is != null) {
+                    cached = new ClassFileReader(JRLoader.loadBytes(is), className.toCharArray(), true);
+                }
+            }
+            entries.putType(className, cached);
+        }
+        return cached == NOT_FOUND ? null : (ClassFileReader) cached;
+    }
+
+    /**
+     * @return true if the given name is not the name of a class of the class loader
+     */
+    public boolean isPackage(final ClassLoader classLoader, final String name) {
+        final LoaderEntries entries = getEntries(classLoader);
+        Boolean cached = entries.getPackage(name);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            boolean isPackage = true;
+            try (InputStream is = classLoader.getResourceAsStream(name.replace('.', '/') + ".class")) {
+                if (is != null) {
+                    isPackage = is.read() < 0;
+                }
+            } catch (final IOException ignored) {
+            }
+            cached = isPackage;
+            entries.putPackage(name, cached);
+        }
+        return cached;
+    }
+
+    private LoaderEntries getEntries(final ClassLoader classLoader) {
+        synchronized (loaders) {
+            LoaderEntries entries = loaders.get(classLoader);
+            if (entries == null) {
+                entries = new LoaderEntries(maxSize);
+                loaders.put(classLoader, entries);
+            }
+            return entries;
+        }
+    }
+
+    public void clear() {
+        synchronized (loaders) {
+            loaders.clear();
+        }
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static final class LoaderEntries {
+
+        private final Map<String, Object> types;
+
+        private final Map<String, Boolean> packages;
+
+        LoaderEntries(final int maxSize) {
+            types = new BoundedMap<>(maxSize);
+            packages = new BoundedMap<>(maxSize);
+        }
+
+        synchronized Object getType(final String className) {
+            return types.get(className);
+        }
+
+        synchronized void putType(final String className, final Object type) {
+            types.put(className, type);
+        }
+
+        synchronized Boolean getPackage(final String name) {
+            return packages.get(name);
+        }
+
+        synchronized void putPackage(final String name, final Boolean isPackage) {
+            packages.put(name, isPackage);
+        }
+    }
+
+    private static final class BoundedMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        BoundedMap(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+
+/**
+ * JVM-wide cache of compiled reports, keyed by the SHA-256 digest of the report source.
+ * <p>
+ * The cache is bounded (see {@link #MAX_SIZE_PROPERTY}) and evicts the least recently used report. Concurrent requests for
+ * the same key wait for a single compilation instead of compiling the same template several times.
+ */
+public class CompiledReportCache {
+
+    /** System property holding the maximum number of compiled reports kept in memory. */
+    public static final String MAX_SIZE_PROPERTY = "org.bonitasoft.connectors.jasper.cache.maxSize";
+
+    private static final int DEFAULT_MAX_SIZE = 100;
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledReportCache.class.getName());
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final CompiledReportCache INSTANCE = new CompiledReportCache(Integer.getInteger(MAX_SIZE_PROPERTY,
+            DEFAULT_MAX_SIZE));
+
+    /**
+     * Compiles a report when it is not found in the cache.
+     */
+    public interface ReportCompilation {
+
+        JasperReport compile() throws JRException;
+    }
+
+    private final int maxSize;
+
+    private final Map<String, JasperReport> reports;
+
+    private final ConcurrentMap<String, FutureTask<JasperReport>> pendingCompilations = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    public CompiledReportCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.reports = new LinkedHashMap<String, JasperReport>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, JasperReport> eldest) {
+                return size() > CompiledReportCache.this.maxSize;
+            }
+        };
+    }
+
+    public static CompiledReportCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the hexadecimal SHA-256 digest of the given report source, used as cache key
+     */
+    public static String key(final byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            final char[] chars = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(chars);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the report cached under the given key, compiling and caching it first if needed.
+     */
+    public JasperReport getOrCompile(final String key, final ReportCompilation compilation) throws JRException {
+        final JasperReport cached = get(key);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        final FutureTask<JasperReport> task = new FutureTask<>(new Callable<JasperReport>() {
+
+            @Override
+            public JasperReport call() throws Exception {
+                // another lookup may have compiled the report between the miss and the registration of this task
+                final JasperReport compiled = get(key);
+                if (compiled != null) {
+                    hitCount.incrementAndGet();
+                    return compiled;
+                }
+                missCount.incrementAndGet();
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Compiled report cache miss for " + key);
+                }
+                final JasperReport report = compilation.compile();
+                put(key, report);
+                return report;
+            }
+        });
+        FutureTask<JasperReport> pending = pendingCompilations.putIfAbsent(key, task);
+        if (pending == null) {
+            pending = task;
+            try {
+                task.run();
+            } finally {
+                pendingCompilations.remove(key, task);
+            }
+        } else {
+            hitCount.incrementAndGet();
+        }
+        try {
+            return pending.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JRException("Interrupted while waiting for the compilation of report " + key, e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof JRException) {
+                throw (JRException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JRException("Unable to compile report " + key, cause);
+        }
+    }
+
+    public JasperReport get(final String key) {
+        synchronized (reports) {
+            return reports.get(key);
+        }
+    }
+
+    public void put(final String key, final JasperReport report) {
+        synchronized (reports) {
+            reports.put(key, report);
+        }
+    }
+
+    public void clear() {
+        synchronized (reports) {
+            reports.clear();
+        }
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    public int size() {
+        synchronized (reports) {
+            return reports.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+}
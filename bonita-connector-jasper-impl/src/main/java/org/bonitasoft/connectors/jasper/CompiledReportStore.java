@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+/**
+ * Directory of compiled reports shared across engine restarts and, when the directory is shared, across JVMs.
+ * <p>
+ * Reports are saved as regular <code>.jasper</code> files named after the digest of their source and the JasperReports
+ * version, so that reports compiled by another version are never read. Files are written to a temporary file and then
+ * moved, so readers never see a partial report. Unreadable files are ignored and removed.
+ * <p>
+ * The store is enabled by setting the {@link #DIRECTORY_PROPERTY} system property.
+ */
+public class CompiledReportStore {
+
+    /** System property holding the directory of the store. */
+    public static final String DIRECTORY_PROPERTY = "org.bonitasoft.connectors.jasper.store.dir";
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledReportStore.class.getName());
+
+    private static final CompiledReportStore INSTANCE = create(System.getProperty(DIRECTORY_PROPERTY));
+
+    private final File directory;
+
+    private final String version;
+
+    public CompiledReportStore(final File directory) {
+        this(directory, getJasperReportsVersion());
+    }
+
+    CompiledReportStore(final File directory, final String version) {
+        this.directory = directory;
+        this.version = version;
+    }
+
+    /**
+     * @return the store configured with {@link #DIRECTORY_PROPERTY}, or null if no store is configured
+     */
+    public static CompiledReportStore getInstance() {
+        return INSTANCE;
+    }
+
+    private static CompiledReportStore create(final String directory) {
+        if (directory == null || directory.trim().isEmpty()) {
+            return null;
+        }
+        return new CompiledReportStore(new File(directory.trim()));
+    }
+
+    static String getJasperReportsVersion() {
+        final String implementationVersion = JasperReport.class.getPackage().getImplementationVersion();
+        if (implementationVersion != null) {
+            return implementationVersion;
+        }
+        return String.valueOf(JRConstants.SERIAL_VERSION_UID);
+    }
+
+    /**
+     * @return the report stored under the given key, or null if it is absent or cannot be read
+     */
+    public JasperReport load(final String key) {
+        final File file = getFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            final Object report = JRLoader.loadObject(file);
+            if (report instanceof JasperReport) {
+                return (JasperReport) report;
+            }
+            LOGGER.warning("Ignoring stored report " + file + ": it does not contain a compiled report");
+        } catch (final JRException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable stored report " + file, e);
+        }
+        if (!file.delete()) {
+            LOGGER.fine("Unable to delete stored report " + file);
+        }
+        return null;
+    }
+
+    /**
+     * Stores a report under the given key. Failures are logged and otherwise ignored, the store being only an
+     * optimization.
+     */
+    public void save(final String key, final JasperReport report) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tempFile = Files.createTempFile(directory.toPath(), key, ".tmp");
+            JRSaver.saveObject(report, tempFile.toFile());
+            final Path target = getFile(key).toPath();
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException | JRException e) {
+            LOGGER.log(Level.WARNING, "Unable to store compiled report " + key + " in " + directory, e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (final IOException e) {
+                    LOGGER.fine("Unable to delete temporary file " + tempFile);
+                }
+            }
+        }
+    }
+
+    File getFile(final String key) {
+        return new File(directory, key + "-" + version + ReportCompiler.JASPER_EXTENSION);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+}
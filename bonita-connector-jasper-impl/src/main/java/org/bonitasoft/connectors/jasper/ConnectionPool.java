@@ -0,0 +1,426 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JDBC connection pool shared by the connector executions using the same driver, URL and user.
+ * <p>
+ * Connections are validated when borrowed, closed after staying idle for {@link #IDLE_TIMEOUT_PROPERTY} milliseconds and
+ * reported when borrowed for more than {@link #LEAK_DETECTION_THRESHOLD_PROPERTY} milliseconds. Closing a borrowed
+ * connection rolls back any pending transaction, restores auto-commit and read-write mode and gives it back to the pool.
+ */
+public class ConnectionPool {
+
+    /** System property holding the maximum number of connections of each pool. */
+    public static final String MAX_SIZE_PROPERTY = "org.bonitasoft.connectors.jasper.pool.maxSize";
+
+    /** System property holding the time in milliseconds after which an idle connection is closed. */
+    public static final String IDLE_TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.pool.idleTimeout";
+
+    /** System property holding the time in milliseconds to wait for a connection when the pool is exhausted. */
+    public static final String BORROW_TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.pool.borrowTimeout";
+
+    /** System property holding the time in seconds allowed to validate a connection on borrow. */
+    public static final String VALIDATION_TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.pool.validationTimeout";
+
+    /** System property holding the time in milliseconds during which a successful connection proves the pool healthy. */
+    public static final String HEALTH_CHECK_INTERVAL_PROPERTY = "org.bonitasoft.connectors.jasper.pool.healthCheckInterval";
+
+    /** System property holding the time in milliseconds after which a borrowed connection is reported as leaked, 0 to disable. */
+    public static final String LEAK_DETECTION_THRESHOLD_PROPERTY = "org.bonitasoft.connectors.jasper.pool.leakDetectionThreshold";
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private static final ConcurrentMap<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    private static final ScheduledThreadPoolExecutor HOUSEKEEPER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "jasper-connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        // the housekeeper thread ends once all pools are closed, so that it does not outlive a redeployed connector
+        HOUSEKEEPER.setRemoveOnCancelPolicy(true);
+        HOUSEKEEPER.setKeepAliveTime(60, TimeUnit.SECONDS);
+        HOUSEKEEPER.allowCoreThreadTimeOut(true);
+    }
+
+    private final String jdbcUrl;
+
+    private final String user;
+
+    private final String password;
+
+    private final int maxSize;
+
+    private final long idleTimeout;
+
+    private final long borrowTimeout;
+
+    private final int validationTimeout;
+
+    private final long leakDetectionThreshold;
+
+    private final Semaphore permits;
+
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+
+    private volatile ScheduledFuture<?> housekeeping;
+
+    private final long healthCheckInterval = Long.getLong(HEALTH_CHECK_INTERVAL_PROPERTY, 30000L);
+
+    private volatile long lastSuccessfulBorrow;
+
+    ConnectionPool(final String jdbcUrl, final String user, final String password) {
+        this(jdbcUrl, user, password, Integer.getInteger(MAX_SIZE_PROPERTY, 10), Long.getLong(IDLE_TIMEOUT_PROPERTY, 300000L),
+                Long.getLong(BORROW_TIMEOUT_PROPERTY, 30000L), Integer.getInteger(VALIDATION_TIMEOUT_PROPERTY, 5),
+                Long.getLong(LEAK_DETECTION_THRESHOLD_PROPERTY, 600000L));
+    }
+
+    ConnectionPool(final String jdbcUrl, final String user, final String password, final int maxSize, final long idleTimeout,
+            final long borrowTimeout, final int validationTimeout, final long leakDetectionThreshold) {
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.borrowTimeout = borrowTimeout;
+        this.validationTimeout = validationTimeout;
+        this.leakDetectionThreshold = leakDetectionThreshold;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Returns the pool of the given database, creating it if needed. The password is part of the pool identity so that a
+     * connection opened with other credentials is never handed out.
+     */
+    public static ConnectionPool getPool(final String dbDriver, final String jdbcUrl, final String user, final String password) {
+        final String key = dbDriver + '|' + jdbcUrl + '|' + user + '|'
+                + CompiledReportCache.key(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+        ConnectionPool pool = POOLS.get(key);
+        if (pool == null) {
+            final ConnectionPool newPool = new ConnectionPool(jdbcUrl, user, password);
+            pool = POOLS.putIfAbsent(key, newPool);
+            if (pool == null) {
+                pool = newPool;
+                pool.scheduleHousekeeping();
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Closes the idle connections of all pools. Borrowed connections are closed when given back.
+     */
+    public static void closeAll() {
+        for (final Iterator<ConnectionPool> it = POOLS.values().iterator(); it.hasNext();) {
+            final ConnectionPool pool = it.next();
+            it.remove();
+            if (pool.housekeeping != null) {
+                pool.housekeeping.cancel(false);
+            }
+            pool.closeIdleConnections(0);
+        }
+    }
+
+    private void scheduleHousekeeping() {
+        final long period = Math.max(1000L, Math.min(idleTimeout, leakDetectionThreshold > 0 ? leakDetectionThreshold
+                : idleTimeout) / 2);
+        housekeeping = HOUSEKEEPER.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    closeIdleConnections(idleTimeout);
+                    detectLeaks();
+                } catch (final RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Connection pool housekeeping failed for " + jdbcUrl, e);
+                }
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if no valid idle connection is available.
+     *
+     * @throws SQLException if the connection cannot be opened or if no connection is available before the borrow timeout
+     */
+    public Connection getConnection() throws SQLException {
+        try {
+            if (!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeout + " ms waiting for a connection to " + jdbcUrl
+                        + ": all " + maxSize + " connections are in use");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection to " + jdbcUrl, e);
+        }
+        try {
+            PooledConnection pooled = pollValidConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(jdbcUrl, user, password));
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            lastSuccessfulBorrow = pooled.borrowedAt;
+            pooled.borrower = leakDetectionThreshold > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            borrowedConnections.add(pooled);
+            return pooled.createHandle();
+        } catch (final SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks that connections to the database can be obtained, without keeping one borrowed. An idle connection or a
+     * connection borrowed less than {@link #HEALTH_CHECK_INTERVAL_PROPERTY} milliseconds ago proves the pool healthy.
+     */
+    public void checkHealth() throws SQLException {
+        if (getIdleCount() > 0 || System.currentTimeMillis() - lastSuccessfulBorrow < healthCheckInterval) {
+            return;
+        }
+        getConnection().close();
+    }
+
+    private PooledConnection pollValidConnection() {
+        while (true) {
+            final PooledConnection pooled;
+            synchronized (idleConnections) {
+                pooled = idleConnections.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - pooled.lastUsed > idleTimeout) {
+                pooled.closePhysically();
+            } else if (!pooled.isValid()) {
+                LOGGER.fine("Discarding invalid pooled connection to " + jdbcUrl);
+                pooled.closePhysically();
+            } else {
+                return pooled;
+            }
+        }
+    }
+
+    private void release(final PooledConnection pooled) {
+        borrowedConnections.remove(pooled);
+        try {
+            if (pooled.reset()) {
+                pooled.lastUsed = System.currentTimeMillis();
+                synchronized (idleConnections) {
+                    idleConnections.addFirst(pooled);
+                }
+            } else {
+                pooled.closePhysically();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    void closeIdleConnections(final long maxIdleTime) {
+        final long now = System.currentTimeMillis();
+        final List<PooledConnection> expired = new ArrayList<>();
+        synchronized (idleConnections) {
+            for (final Iterator<PooledConnection> it = idleConnections.iterator(); it.hasNext();) {
+                final PooledConnection pooled = it.next();
+                if (now - pooled.lastUsed >= maxIdleTime) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        }
+        for (final PooledConnection pooled : expired) {
+            pooled.closePhysically();
+        }
+    }
+
+    void detectLeaks() {
+        if (leakDetectionThreshold <= 0) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        for (final PooledConnection pooled : borrowedConnections) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThreshold) {
+                pooled.leakReported = true;
+                LOGGER.log(Level.WARNING, "Connection to " + jdbcUrl + " borrowed for more than " + leakDetectionThreshold
+                        + " ms, it may have leaked", pooled.borrower);
+            }
+        }
+    }
+
+    public int getIdleCount() {
+        synchronized (idleConnections) {
+            return idleConnections.size();
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowedConnections.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private class PooledConnection {
+
+        private final Connection connection;
+
+        private volatile long lastUsed;
+
+        private volatile long borrowedAt;
+
+        private volatile Throwable borrower;
+
+        private volatile boolean leakReported;
+
+        PooledConnection(final Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection createHandle() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[] { Connection.class },
+                    new ConnectionHandle(this));
+        }
+
+        boolean isValid() {
+            try {
+                return connection.isValid(validationTimeout);
+            } catch (final AbstractMethodError e) {
+                // pre JDBC 4 driver
+                try {
+                    return !connection.isClosed();
+                } catch (final SQLException e1) {
+                    return false;
+                }
+            } catch (final SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * @return false if the connection could not be cleaned and must not be reused
+         */
+        boolean reset() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                if (connection.isReadOnly()) {
+                    connection.setReadOnly(false);
+                }
+                connection.clearWarnings();
+                return true;
+            } catch (final SQLException e) {
+                LOGGER.log(Level.FINE, "Unable to reset pooled connection to " + jdbcUrl, e);
+                return false;
+            }
+        }
+
+        void closePhysically() {
+            try {
+                connection.close();
+            } catch (final SQLException e) {
+                LOGGER.log(Level.FINE, "Unable to close pooled connection to " + jdbcUrl, e);
+            }
+        }
+    }
+
+    /**
+     * Connection handed out to the caller: closing it gives the underlying connection back to the pool.
+     */
+    private class ConnectionHandle implements InvocationHandler {
+
+        private final PooledConnection pooled;
+
+        private boolean closed;
+
+        ConnectionHandle(final PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if ("close".equals(name)) {
+                synchronized (this) {
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                }
+                return null;
+            }
+            if ("isClosed".equals(name)) {
+                return closed || pooled.connection.isClosed();
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name)) {
+                return "Pooled" + pooled.connection;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been closed");
+            }
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+}
@@ -15,19 +15,17 @@
 package org.bonitasoft.connectors.jasper;
 
 import java.io.*;
-import java.math.BigDecimal;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+
+import javax.naming.NamingException;
 
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.design.JRCompiler;
@@ -35,13 +33,14 @@ import net.sf.jasperreports.engine.design.JRJavacCompiler;
 import net.sf.jasperreports.engine.design.JRJdk13Compiler;
 import net.sf.jasperreports.engine.util.JRClassLoader;
 import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.repo.RepositoryService;
+import org.bonitasoft.engine.api.ProcessAPI;
 import org.bonitasoft.engine.bpm.document.Document;
 import org.bonitasoft.engine.bpm.document.DocumentNotFoundException;
 import org.bonitasoft.engine.bpm.document.DocumentValue;
 import org.bonitasoft.engine.connector.AbstractConnector;
 import org.bonitasoft.engine.connector.ConnectorException;
 import org.bonitasoft.engine.connector.ConnectorValidationException;
-import org.bonitasoft.engine.io.IOUtil;
 import org.bonitasoft.engine.session.InvalidSessionException;
 
 /**
@@ -58,15 +57,59 @@ public class CreateReportFromDataBase extends AbstractConnector {
 
 	private static final String PASSWORD = "password";
 
+	private static final String DATA_SOURCE_NAME = "dataSourceName";
+
 	private static final String JRXML_DOC = "jrxmlDocument";
 
+	private static final String SUBREPORT_DOCS = "subreportDocuments";
+
+	private static final String WARM_UP_DOCS = "warmUpDocuments";
+
 	private static final String PARAMETERS = "parameters";
 
 	private static final String OUTPUT_FORMAT = "outputFormat";
 
+	private static final String DATA_EXPORT = "dataExport";
+
+	private static final String FETCH_SIZE = "fetchSize";
+
+	private static final String READ_ONLY = "readOnly";
+
+	private static final String STREAM_RESULT_SET = "streamResultSet";
+
+	private static final String VIRTUALIZER = "virtualizer";
+
+	private static final String VIRTUALIZER_MAX_PAGES = "virtualizerMaxPages";
+
+	private static final String VIRTUALIZER_DIRECTORY = "virtualizerDirectory";
+
+	private static final String MEMORY_WEIGHT = "memoryWeight";
+
+	private static final String MAX_PAGES = "maxPages";
+
+	private static final String MAX_ROWS = "maxRows";
+
+	private static final String MAX_OUTPUT_SIZE = "maxOutputSize";
+
+	private static final String ASYNCHRONOUS = "asynchronous";
+
+	private static final String REPORT_DOC = "reportDocument";
+
+	private static final String ERROR_VARIABLE = "errorVariable";
+
+	private static final String JOB_TIMEOUT = "jobTimeout";
+
+	private static final String TIMEOUT = "timeout";
+
+	private static final String QUERY_TIMEOUT = "queryTimeout";
+
+	private static final String FILL_TIMEOUT = "fillTimeout";
+
 	// output
 	private static final String REPORT_DOC_VALUE = "reportDocValue";
 
+	private static final String REPORT_DOC_VALUES = "reportDocValues";
+
 	// Data base configuration
 	private String dbDriver;
 
@@ -76,29 +119,106 @@ public class CreateReportFromDataBase extends AbstractConnector {
 
 	private String password;
 
+	private String dataSourceName;
+
 	// Report settings
 	private String jrxmlDocument;
 
 	private byte[] jrxmlContent;
 
-	private Map<String, String> parameters = null;
+	private boolean precompiled;
+
+	private List<String> subreportDocuments;
+
+	// Subreport contents by document file name
+	private Map<String, byte[]> subreportContents;
+
+	// Templates used later in the process, compiled in the background
+	private List<String> warmUpDocuments;
+
+	private List<byte[]> warmUpContents;
+
+	private Map<String, Object> parameters = null;
 
-	private String outputFormat;
+	private List<String> outputFormats;
+
+	// Only the data of the report is exported, in this format, when set
+	private DataExport.Format dataFormat;
+
+	private boolean dataExport;
+
+	// Query settings
+	private JdbcFetchOptions fetchOptions;
+
+	// Fill settings
+	private String virtualizer;
+
+	private Integer virtualizerMaxPages;
+
+	private String virtualizerDirectory;
+
+	private ReportVirtualization virtualization;
+
+	// Megabytes the report is expected to need, weighed by the fill admission control
+	private Integer memoryWeight;
+
+	// Limits of the report size, lowering the limits of the server
+	private Integer maxPages;
+
+	private Integer maxRows;
+
+	private Integer maxOutputSize;
+
+	// Execution settings
+	private boolean asynchronous;
+
+	private String reportDocument;
+
+	private String errorVariable;
+
+	private Integer jobTimeout;
+
+	// Time limits in seconds, null for the server defaults
+	private Integer timeout;
+
+	private Integer queryTimeout;
+
+	private Integer fillTimeout;
 
 	private Logger LOGGER = Logger.getLogger(this.getClass().getName());
 
-	private Connection conn = null;
-	
+	private static final Set<String> LOADED_DRIVERS = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	static {
+		// the fills, jobs and exports in progress are shown by JMX consoles
+		ReportMetrics.register();
+	}
+
 	private enum OutputFormat {
-		html, pdf, xml
+		html, pdf, xml, csv, xlsx, docx;
 
+		static boolean isSupported(final String format) {
+			for (final OutputFormat outputFormat : values()) {
+				if (outputFormat.name().equalsIgnoreCase(format)) {
+					return true;
+				}
+			}
+			return false;
+		}
 	}
 
+	private static final String UNSUPPORTED_FORMAT = " is not supported. Accepted outputFormats are : 'html', 'pdf', 'xml', 'csv', 'xlsx' or 'docx' !";
+
 
 	public Object getResult() {
 		return getOutputParameters().get(REPORT_DOC_VALUE);
 	}
 
+	@SuppressWarnings("unchecked")
+	public List<DocumentValue> getResults() {
+		return (List<DocumentValue>) getOutputParameters().get(REPORT_DOC_VALUES);
+	}
+
 	@SuppressWarnings("unchecked")
 	private void initInputs() {
 		dbDriver = (String) getInputParameter(DB_DRIVER);
@@ -112,14 +232,67 @@ public class CreateReportFromDataBase extends AbstractConnector {
 		password = (String) getInputParameter(PASSWORD);
 		LOGGER.info(PASSWORD + " ******");
 
+		dataSourceName = (String) getInputParameter(DATA_SOURCE_NAME);
+		LOGGER.info(DATA_SOURCE_NAME + " " + dataSourceName);
+
 		jrxmlDocument = (String) getInputParameter(JRXML_DOC);
 		LOGGER.info(JRXML_DOC + " " + jrxmlDocument);
 
-		outputFormat = (String) getInputParameter(OUTPUT_FORMAT);
-		LOGGER.info(OUTPUT_FORMAT + " " + outputFormat);
+		subreportDocuments = getDocumentNames(SUBREPORT_DOCS);
+		LOGGER.info(SUBREPORT_DOCS + " " + subreportDocuments);
+
+		warmUpDocuments = getDocumentNames(WARM_UP_DOCS);
+		LOGGER.info(WARM_UP_DOCS + " " + warmUpDocuments);
+
+		outputFormats = new ArrayList<String>();
+		final Object formats = getInputParameter(OUTPUT_FORMAT);
+		// Several formats are given as a list, or separated by commas
+		if (formats != null) {
+			for (final Object format : formats instanceof List ? (List<?>) formats : Arrays.asList(formats.toString().split(","))) {
+				if (format != null && format.toString().trim().length() > 0) {
+					outputFormats.add(format.toString().trim());
+				}
+			}
+		}
+		LOGGER.info(OUTPUT_FORMAT + " " + outputFormats);
+
+		dataExport = Boolean.TRUE.equals(getInputParameter(DATA_EXPORT));
+		LOGGER.info(DATA_EXPORT + " " + dataExport);
+
+		final Integer fetchSize = (Integer) getInputParameter(FETCH_SIZE);
+		final Boolean readOnly = (Boolean) getInputParameter(READ_ONLY);
+		final Boolean streamResultSet = (Boolean) getInputParameter(STREAM_RESULT_SET);
+		LOGGER.info(FETCH_SIZE + " " + fetchSize + " " + READ_ONLY + " " + readOnly + " " + STREAM_RESULT_SET + " " + streamResultSet);
+		fetchOptions = new JdbcFetchOptions(fetchSize, readOnly, streamResultSet);
+
+		virtualizer = (String) getInputParameter(VIRTUALIZER);
+		virtualizerMaxPages = (Integer) getInputParameter(VIRTUALIZER_MAX_PAGES);
+		virtualizerDirectory = (String) getInputParameter(VIRTUALIZER_DIRECTORY);
+		LOGGER.info(VIRTUALIZER + " " + virtualizer + " " + VIRTUALIZER_MAX_PAGES + " " + virtualizerMaxPages + " " + VIRTUALIZER_DIRECTORY + " "
+				+ virtualizerDirectory);
+
+		memoryWeight = (Integer) getInputParameter(MEMORY_WEIGHT);
+		LOGGER.info(MEMORY_WEIGHT + " " + memoryWeight);
+
+		maxPages = (Integer) getInputParameter(MAX_PAGES);
+		maxRows = (Integer) getInputParameter(MAX_ROWS);
+		maxOutputSize = (Integer) getInputParameter(MAX_OUTPUT_SIZE);
+		LOGGER.info(MAX_PAGES + " " + maxPages + " " + MAX_ROWS + " " + maxRows + " " + MAX_OUTPUT_SIZE + " " + maxOutputSize);
+
+		asynchronous = Boolean.TRUE.equals(getInputParameter(ASYNCHRONOUS));
+		reportDocument = (String) getInputParameter(REPORT_DOC);
+		errorVariable = (String) getInputParameter(ERROR_VARIABLE);
+		jobTimeout = (Integer) getInputParameter(JOB_TIMEOUT);
+		LOGGER.info(ASYNCHRONOUS + " " + asynchronous + " " + REPORT_DOC + " " + reportDocument + " " + ERROR_VARIABLE + " " + errorVariable + " "
+				+ JOB_TIMEOUT + " " + jobTimeout);
+
+		timeout = (Integer) getInputParameter(TIMEOUT);
+		queryTimeout = (Integer) getInputParameter(QUERY_TIMEOUT);
+		fillTimeout = (Integer) getInputParameter(FILL_TIMEOUT);
+		LOGGER.info(TIMEOUT + " " + timeout + " " + QUERY_TIMEOUT + " " + queryTimeout + " " + FILL_TIMEOUT + " " + fillTimeout);
 
 		final List<List<Object>> parametersList = (List<List<Object>>) getInputParameter(PARAMETERS);
-		parameters = new HashMap<String, String>();
+		parameters = new HashMap<String, Object>();
 		if (parametersList != null) {
 			// System.out.println("initInputs - parameters list :" + parametersList.toString());
 			for (List<Object> rows : parametersList) {
@@ -128,15 +301,27 @@ public class CreateReportFromDataBase extends AbstractConnector {
 					Object valueContent = rows.get(1);
 					LOGGER.info("Parameter " + keyContent + " " + valueContent);
 					if (keyContent != null && valueContent != null) {
-						final String key = keyContent.toString();
-						final String value = valueContent.toString();
-						parameters.put(key, value);
+						// typed values are converted by the parameter plan of the report, without going through their text
+						parameters.put(keyContent.toString(), valueContent);
 					}
 				}
 			}
 		}
 	}
 
+	private List<String> getDocumentNames(final String inputName) {
+		final List<?> documentList = (List<?>) getInputParameter(inputName);
+		final List<String> documentNames = new ArrayList<String>();
+		if (documentList != null) {
+			for (Object document : documentList) {
+				if (document != null && document.toString().trim().length() > 0) {
+					documentNames.add(document.toString().trim());
+				}
+			}
+		}
+		return documentNames;
+	}
+
 	@Override
 	public void validateInputParameters() throws ConnectorValidationException {
 		initInputs();
@@ -149,29 +334,115 @@ public class CreateReportFromDataBase extends AbstractConnector {
 		Long processInstanceId = getExecutionContext().getProcessInstanceId();
 		try {
 			Document document = getAPIAccessor().getProcessAPI().getLastDocument(processInstanceId, jrxmlDocument);
-			if (!document.hasContent() || !document.getContentFileName().matches(".*\\.jrxml")) {
-				errors.add("the jrxmlDocument " + document.getName() + " must have for content a jrxml file compatible with jasper v5");
+			if (!document.hasContent() || !document.getContentFileName().matches(".*\\.(jrxml|jasper)")) {
+				errors.add("the jrxmlDocument " + document.getName() + " must have for content a jrxml or a compiled jasper file compatible with jasper v5");
 			}
 			else {
+				precompiled = ReportCompiler.isPrecompiled(document.getContentFileName());
 				jrxmlContent = getAPIAccessor().getProcessAPI().getDocumentContent(document.getContentStorageId());
 			}
 		} catch (Exception e) {
 			errors.add(jrxmlDocument + " is not the name of a document defined in the process");
 		}
+		subreportContents = new LinkedHashMap<String, byte[]>();
+		for (String subreportDocument : subreportDocuments) {
+			try {
+				Document document = getAPIAccessor().getProcessAPI().getLastDocument(processInstanceId, subreportDocument);
+				if (!document.hasContent() || !document.getContentFileName().matches(".*\\.(jrxml|jasper)")) {
+					errors.add("the subreport document " + document.getName() + " must have for content a jrxml or a compiled jasper file compatible with jasper v5");
+				}
+				else {
+					subreportContents.put(document.getContentFileName(), getAPIAccessor().getProcessAPI().getDocumentContent(document.getContentStorageId()));
+				}
+			} catch (Exception e) {
+				errors.add(subreportDocument + " is not the name of a document defined in the process");
+			}
+		}
+		warmUpContents = new ArrayList<byte[]>();
+		for (String warmUpDocument : warmUpDocuments) {
+			try {
+				Document document = getAPIAccessor().getProcessAPI().getLastDocument(processInstanceId, warmUpDocument);
+				if (!document.hasContent() || !document.getContentFileName().endsWith(".jrxml")) {
+					errors.add("the warm-up document " + document.getName() + " must have for content a jrxml file compatible with jasper v5");
+				}
+				else {
+					warmUpContents.add(getAPIAccessor().getProcessAPI().getDocumentContent(document.getContentStorageId()));
+				}
+			} catch (Exception e) {
+				errors.add(warmUpDocument + " is not the name of a document defined in the process");
+			}
+		}
 
-		outputFormat = outputFormat.trim();
-		if (!OutputFormat.html.name().equalsIgnoreCase(outputFormat) && !OutputFormat.pdf.name().equalsIgnoreCase(outputFormat)
-				&& !OutputFormat.xml.name().equalsIgnoreCase(outputFormat)) {
-			errors.add(outputFormat + " is not supported. Accepted outputFormats are : 'html', 'pdf' or 'xml' !");
+		if (outputFormats.isEmpty()) {
+			errors.add("outputFormat cannot be empty!");
+		}
+		for (final String outputFormat : outputFormats) {
+			if (dataExport) {
+				dataFormat = DataExport.Format.of(outputFormat);
+				if (dataFormat == null) {
+					errors.add(outputFormat + " is not supported by the data export. Accepted outputFormats are : 'csv' or 'jsonl' !");
+				}
+			} else if (!OutputFormat.isSupported(outputFormat)) {
+				errors.add(outputFormat + UNSUPPORTED_FORMAT);
+			}
+		}
+		if (outputFormats.size() > 1 && dataExport) {
+			errors.add("A single outputFormat can be given for a data export, current are " + outputFormats);
+		}
+		if (outputFormats.size() > 1 && asynchronous) {
+			errors.add("A single outputFormat can be given when the report is generated asynchronously, current are " + outputFormats);
+		}
+		try {
+			virtualization = new ReportVirtualization(virtualizer, virtualizerMaxPages, virtualizerDirectory);
+			if (virtualization.getMode() == ReportVirtualization.Mode.SWAP_FILE && !new File(virtualization.getDirectory()).isDirectory()) {
+				errors.add("virtualizerDirectory " + virtualization.getDirectory() + " is not a directory");
+			}
+		} catch (final IllegalArgumentException e) {
+			errors.add(virtualizer + " is not a supported virtualizer. Accepted virtualizers are : 'NONE', 'SWAP_FILE' or 'GZIP' ! " + e.getMessage());
+		}
+		if (asynchronous && (reportDocument == null || reportDocument.trim().isEmpty())) {
+			errors.add("reportDocument cannot be empty when the report is generated asynchronously!");
+		}
+		if (maxPages != null && maxPages < 0) {
+			errors.add("maxPages cannot be negative, current is " + maxPages);
+		}
+		if (maxRows != null && maxRows < 0) {
+			errors.add("maxRows cannot be negative, current is " + maxRows);
+		}
+		if (maxOutputSize != null && maxOutputSize < 0) {
+			errors.add("maxOutputSize cannot be negative, current is " + maxOutputSize);
+		}
+		if (memoryWeight != null && memoryWeight <= 0) {
+			errors.add("memoryWeight must be positive, current is " + memoryWeight);
+		}
+		if (jobTimeout != null && jobTimeout < 0) {
+			errors.add("jobTimeout cannot be negative, current is " + jobTimeout);
+		}
+		if (timeout != null && timeout < 0) {
+			errors.add("timeout cannot be negative, current is " + timeout);
+		}
+		if (queryTimeout != null && queryTimeout < 0) {
+			errors.add("queryTimeout cannot be negative, current is " + queryTimeout);
+		}
+		if (fillTimeout != null && fillTimeout < 0) {
+			errors.add("fillTimeout cannot be negative, current is " + fillTimeout);
 		}
 		if (!errors.isEmpty()) {
 			throw new ConnectorValidationException(this, errors);
 		}
 
-		// Load JDBC driver
+		// Use the server managed data source when one is given
+		// Otherwise load JDBC driver
 		// Check that jrxmlFile exists
 		// Test database connection
-		if(dbDriver != null && !dbDriver.isEmpty()){
+		if (dataSourceName != null && !dataSourceName.trim().isEmpty()) {
+			try {
+				dataSourceValidations(dataSourceName.trim());
+			} catch (final NamingException e) {
+				errors.add("dataSourceName " + dataSourceName + " is not the name of a data source. Message: " + e.getMessage());
+			}
+		}
+		else if(dbDriver != null && !dbDriver.isEmpty()){
 			if(jdbcUrl != null && !jdbcUrl.isEmpty()){
 				try {
 					databaseValidations(dbDriver, jrxmlDocument, jdbcUrl, user, password);
@@ -195,15 +466,62 @@ public class CreateReportFromDataBase extends AbstractConnector {
 
 	@Override
 	protected void executeBusinessLogic() throws ConnectorException {
+		if (warmUpContents != null && !warmUpContents.isEmpty()) {
+			// compiled and loaded in the background, for the tasks using them later in the process
+			ReportWarmUp.getInstance().submit(warmUpContents, true);
+		}
 		try {
-			createJasperReportFromDataBase(dbDriver, jdbcUrl, user, password, jrxmlDocument, parameters, outputFormat);
+			if (asynchronous) {
+				submitReportJob();
+			} else {
+				createJasperReportFromDataBase(dbDriver, jdbcUrl, user, password, jrxmlDocument, parameters, outputFormats);
+			}
 		} catch (final Exception e) {
 			throw new ConnectorException(e);
 		}
 	}
 
 	/**
-	 * validate the database
+	 * Queues the report on the {@link ReportJobExecutor} and returns right away. The report is attached to the reportDocument
+	 * document of the process instance once generated; no report is given as output.
+	 */
+	private void submitReportJob() {
+		final long processInstanceId = getExecutionContext().getProcessInstanceId();
+		final long timeout = jobTimeout != null ? jobTimeout : ReportJobExecutor.getDefaultTimeoutSeconds();
+		final List<ReportJobListener> listeners = new ArrayList<ReportJobListener>();
+		if (errorVariable != null && !errorVariable.trim().isEmpty()) {
+			listeners.add(new ErrorVariableListener(getAPIAccessor().getProcessAPI(), errorVariable.trim()));
+		}
+		ReportJobExecutor.getInstance().submit(new ReportJob(processInstanceId, reportDocument.trim(), timeout) {
+
+			@Override
+			protected void execute() throws Exception {
+				final DocumentValue report = generateReport(dbDriver, jdbcUrl, user, password, parameters, outputFormats).get(0);
+				// The report is not attached once the job has timed out, even if it went on after being interrupted
+				checkDeadline();
+				attachReport(getProcessInstanceId(), getReportDocument(), report);
+			}
+		}, listeners);
+		setOutputParameter(REPORT_DOC_VALUE, null);
+		setOutputParameter(REPORT_DOC_VALUES, null);
+		if (LOGGER.isLoggable(Level.INFO)) {
+			LOGGER.info("Report " + jrxmlDocument + " queued, it will be attached to document " + reportDocument);
+		}
+	}
+
+	private void attachReport(final long processInstanceId, final String documentName, final DocumentValue report) throws Exception {
+		final ProcessAPI processAPI = getAPIAccessor().getProcessAPI();
+		try {
+			processAPI.getLastDocument(processInstanceId, documentName);
+		} catch (final DocumentNotFoundException e) {
+			processAPI.attachDocument(processInstanceId, documentName, report.getFileName(), report.getMimeType(), report.getContent());
+			return;
+		}
+		processAPI.attachNewDocumentVersion(processInstanceId, documentName, report.getFileName(), report.getMimeType(), report.getContent());
+	}
+
+	/**
+	 * validate the database. No connection is kept open: the connection used by the report is borrowed right before the fill.
 	 * 
 	 * @throws InvalidSessionException
 	 * @throws IOException
@@ -213,236 +531,309 @@ public class CreateReportFromDataBase extends AbstractConnector {
 			throws ClassNotFoundException, DocumentNotFoundException, SQLException, InvalidSessionException, IOException, ConnectorValidationException {
 
 		// Load JDBC driver
-		try {
-			Class.forName(dbDriver);
-		} catch (final ClassNotFoundException e) {
-			if (LOGGER.isLoggable(Level.WARNING)) {
-				LOGGER.warning("JDBC Driver not found. dbDriver=" + dbDriver);
+		if (!LOADED_DRIVERS.contains(dbDriver)) {
+			try {
+				Class.forName(dbDriver);
+				LOADED_DRIVERS.add(dbDriver);
+			} catch (final ClassNotFoundException e) {
+				if (LOGGER.isLoggable(Level.WARNING)) {
+					LOGGER.warning("JDBC Driver not found. dbDriver=" + dbDriver);
+				}
+				throw e;
 			}
-			throw e;
 		}
 
-		// Test database connection. this method is just for validation. no need close conn in finally code block.
+		// Test database connection
 		try {
-			conn = DriverManager.getConnection(jdbcUrl, user, password);
-			conn.setAutoCommit(false);
+			ConnectionPool.getPool(dbDriver, jdbcUrl, user, password).checkHealth();
 		} catch (final SQLException e) {
 			if (LOGGER.isLoggable(Level.WARNING)) {
 				LOGGER.warning("Connection error: " + e.getMessage());
 			}
-			try {
-				if (conn != null) {
-					conn.close();
-				}
-			} catch (final Exception e1) {
-				if (LOGGER.isLoggable(Level.WARNING)) {
-					LOGGER.warning("Exception during finally. Message: " + e1.getMessage());
-				}
-			}
 			throw e;
 		}
 
 	}
 
-	private byte[] makeZip(String dir, List<String> filesList) throws IOException {
-		File outFolder = File.createTempFile("htmlZip", ".zip");
-		outFolder.deleteOnExit();
-		ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(outFolder)));
-		for (String strFile : filesList) {
-			byte[] data = new byte[1000];
-			out.putNextEntry(new ZipEntry(strFile.replaceFirst(".*" + dir + ".{1}", "")));
-			BufferedInputStream in = new BufferedInputStream(new FileInputStream(strFile));
-			int count;
-			while ((count = in.read(data)) != -1)
-			{
-				out.write(data, 0, count);
-			}
-			in.close();
-			out.closeEntry();
-		}
-
-		out.flush();
-		out.close();
-		return IOUtil.getAllContentFrom(outFolder);
+	/**
+	 * validate the data source
+	 */
+	public void dataSourceValidations(final String dataSourceName) throws NamingException {
+		DataSources.lookup(dataSourceName);
+	}
+
+	/**
+	 * @return a connection to the report database, or null if no database is configured
+	 */
+	private Connection openConnection(final String dbDriver, final String jdbcUrl, final String user, final String password)
+			throws NamingException, SQLException {
+		final Connection connection;
+		if (dataSourceName != null && !dataSourceName.trim().isEmpty()) {
+			connection = DataSources.lookup(dataSourceName.trim()).getConnection();
+		} else if (dbDriver != null && !dbDriver.isEmpty() && jdbcUrl != null && !jdbcUrl.isEmpty()) {
+			connection = ConnectionPool.getPool(dbDriver, jdbcUrl, user, password).getConnection();
+		} else {
+			return null;
+		}
+		try {
+			connection.setAutoCommit(false);
+		} catch (final SQLException e) {
+			closeConnection(connection);
+			throw e;
+		}
+		return connection;
 	}
 
-	private List<String> selectZipFiles(File srcDir, String pattern, Long delay) throws Exception {
-		List<String> fList = new ArrayList<String>();
-		if (!srcDir.isDirectory()) {
-			throw new Exception(srcDir + " must be a directory");
+	/**
+	 * @return the data source name or the JDBC URL the report is filled from, or null if no database is configured
+	 */
+	private String getDatabase(final String dbDriver, final String jdbcUrl) {
+		if (dataSourceName != null && !dataSourceName.trim().isEmpty()) {
+			return dataSourceName.trim();
+		}
+		if (dbDriver != null && !dbDriver.isEmpty() && jdbcUrl != null && !jdbcUrl.isEmpty()) {
+			return jdbcUrl;
 		}
-		for (File f : srcDir.listFiles()) {
-			if (f.getName().contains(pattern) && f.lastModified() > (System.currentTimeMillis() - delay)) {
-				if (f.isDirectory()) {
-					fList.addAll(selectZipFiles(f, "", 5000L));
+		return null;
+	}
+
+	private void closeConnection(final Connection connection) {
+		try {
+			if (connection != null) {
+				if (!connection.getAutoCommit()) {
+					connection.rollback();
 				}
-				else {
-					fList.add(f.getCanonicalPath());
+				if (connection.isReadOnly()) {
+					connection.setReadOnly(false);
 				}
+				connection.close();
+			}
+		} catch (final SQLException e) {
+			if (LOGGER.isLoggable(Level.WARNING)) {
+				LOGGER.warning("Exception while releasing the connection. Message: " + e.getMessage());
 			}
 		}
-		return fList;
 	}
 
 	public void createJasperReportFromDataBase(final String dbDriver, final String jdbcUrl, final String user, final String password,
 			final String jrxmlDocument, final Map<String, String> parameters, final String outputFormat) throws Exception {
+		createJasperReportFromDataBase(dbDriver, jdbcUrl, user, password, jrxmlDocument, parameters, Collections.singletonList(outputFormat));
+	}
+
+	public void createJasperReportFromDataBase(final String dbDriver, final String jdbcUrl, final String user, final String password,
+			final String jrxmlDocument, final Map<String, ?> parameters, final List<String> outputFormats) throws Exception {
+		final List<DocumentValue> reports = generateReport(dbDriver, jdbcUrl, user, password, parameters, outputFormats);
+		setOutputParameter(REPORT_DOC_VALUE, reports.get(0));
+		setOutputParameter(REPORT_DOC_VALUES, reports);
+	}
+
+	/**
+	 * Fills the report once and exports it to each of the given formats.
+	 * 
+	 * @return the exported reports, in the order of the formats
+	 */
+	private List<DocumentValue> generateReport(final String dbDriver, final String jdbcUrl, final String user, final String password,
+			final Map<String, ?> parameters, final List<String> outputFormats) throws Exception {
 		if (LOGGER.isLoggable(Level.INFO)) {
 			LOGGER.info("Creating a new Jasper Report from database");
 		}
 
+		final ReportTimeouts timeouts = new ReportTimeouts(timeout, queryTimeout, fillTimeout);
+		final ReportLimits limits = new ReportLimits(maxPages, maxRows, maxOutputSize);
+		JRVirtualizer reportVirtualizer = null;
+		FillAdmission.Permit permit = null;
 		try {
-			final JasperReport report = compile(new ByteArrayInputStream(jrxmlContent));
-			final Map<String, Object> typedParameters = getTypedParameters(report, parameters);
- 			final JasperPrint print = JasperFillManager.fillReport(report, typedParameters, conn);
-
-			byte[] content;
-			ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-			String mimeType = "";
-			String suffix = "." + outputFormat;
-			// Export file to selected document
+			final SubreportRepository subreports = new SubreportRepository();
+			final JasperReport report = compileWithSubreports(subreports);
+			final Map<String, Object> typedParameters = ParameterPlan.of(report).convert(parameters);
+			if (virtualization != null && dataFormat == null) {
+				reportVirtualizer = virtualization.createVirtualizer();
+			}
+			if (reportVirtualizer != null) {
+				typedParameters.put(JRParameter.REPORT_VIRTUALIZER, reportVirtualizer);
+			}
+			// Wait for the report to be admitted before borrowing a connection: the permit is held until the report is exported
+			permit = FillAdmission.getInstance().acquire(getDatabase(dbDriver, jdbcUrl), memoryWeight, timeouts.getRemainingNanos());
+			final JasperPrint print;
+			final Connection conn = timeouts.limitQueries(openConnection(dbDriver, jdbcUrl, user, password));
+			try {
+				final LocalJasperReportsContext fillContext = new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance());
+				if (fetchOptions != null) {
+					fetchOptions.configure(fillContext, conn);
+				}
+				if (dataFormat != null) {
+					// The rows of the report query are streamed as they are read, the report is not filled
+					return Collections.singletonList(exportData(fillContext, report, typedParameters, conn, limits));
+				}
+				if (!subreports.isEmpty()) {
+					fillContext.setExtensions(RepositoryService.class, Collections.singletonList(subreports));
+				}
+				// Stops the fill once the report has too many pages or reads too many rows
+				limits.configure(fillContext, report);
+				// Cancelled once the fill timeout or the report timeout is reached
+				print = timeouts.fill(fillContext, report, typedParameters, conn);
+			} finally {
+				// Release the connection as soon as the report is filled: closing gives it back to its pool.
+				closeConnection(conn);
+			}
+			ReportVirtualization.filled(reportVirtualizer);
+			timeouts.check("the export");
+
+			if (outputFormats.size() == 1 || reportVirtualizer != null) {
+				// The pages of a virtualized report are swapped in and out for a single export at a time
+				final List<DocumentValue> reports = new ArrayList<DocumentValue>();
+				for (final String outputFormat : outputFormats) {
+					reports.add(export(print, outputFormat, limits));
+				}
+				return reports;
+			}
+			// The print is no longer modified once filled: each format is exported from it on a thread of its own
+			ReportExporters.setMemoryThreshold(print);
+			final List<Callable<DocumentValue>> exports = new ArrayList<Callable<DocumentValue>>();
+			for (final String outputFormat : outputFormats) {
+				exports.add(new Callable<DocumentValue>() {
+
+					@Override
+					public DocumentValue call() throws Exception {
+						return export(print, outputFormat, limits);
+					}
+				});
+			}
+			return ReportExportExecutor.getInstance().exportAll(exports, timeouts.getRemainingNanos());
+		} catch (final Exception e) {
+			if (LOGGER.isLoggable(Level.WARNING)) {
+				LOGGER.warning(e.toString());
+			}
+			throw e;
+		} finally {
+			// Delete the swapped out pages whatever the outcome of the fill and the export
+			ReportVirtualization.cleanup(reportVirtualizer);
+			if (permit != null) {
+				permit.close();
+			}
+		}
+	}
+
+	private DocumentValue export(final JasperPrint print, final String outputFormat, final ReportLimits limits) throws Exception {
+		byte[] content;
+		String mimeType = "";
+		String suffix = "." + outputFormat;
+		// Export file to selected document
+		// The output is written once and handed over as an array of its exact size
+		try (ReportOutputStream outStream = new ReportOutputStream()) {
+			// Stops the export once the report is too large
+			final OutputStream exportStream = limits.limitSize(outStream);
 			if (OutputFormat.pdf.name().equalsIgnoreCase(outputFormat)) {
-				JasperExportManager.exportReportToPdfStream(print, outStream);
+				JasperExportManager.exportReportToPdfStream(print, exportStream);
 				content = outStream.toByteArray();
 				mimeType = "application/pdf";
 			}
 			else if (OutputFormat.html.name().equalsIgnoreCase(outputFormat)) {
-				File htmlFile = File.createTempFile("jasperReport", ".html");
-				htmlFile.deleteOnExit();
-				JasperExportManager.exportReportToHtmlFile(print, htmlFile.getCanonicalPath());
-				List<String> filesForZip = selectZipFiles(htmlFile.getParentFile(), "html", 10000L);
-				content = makeZip(htmlFile.getParentFile().getName(), filesForZip);
+				HtmlZipExporter.export(print, "jasper_report." + OutputFormat.html.name(), exportStream);
+				content = outStream.toByteArray();
 				mimeType = "application/zip";
 				suffix = suffix + ".zip";
 			}
 			else if (OutputFormat.xml.name().equalsIgnoreCase(outputFormat)) {
-				JasperExportManager.exportReportToXmlStream(print, outStream);
+				JasperExportManager.exportReportToXmlStream(print, exportStream);
 				content = outStream.toByteArray();
 				mimeType = "application/xml";
 			}
+			else if (OutputFormat.csv.name().equalsIgnoreCase(outputFormat)) {
+				ReportExporters.exportCsv(print, exportStream);
+				content = outStream.toByteArray();
+				mimeType = "text/csv";
+			}
+			else if (OutputFormat.xlsx.name().equalsIgnoreCase(outputFormat)) {
+				ReportExporters.exportXlsx(print, exportStream);
+				content = outStream.toByteArray();
+				mimeType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+			}
+			else if (OutputFormat.docx.name().equalsIgnoreCase(outputFormat)) {
+				ReportExporters.exportDocx(print, exportStream);
+				content = outStream.toByteArray();
+				mimeType = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+			}
 			else {
-				final String errorMessage = outputFormat + " is not supported. Accepted outputFormats are : 'html', 'pdf' or 'xml' !";
+				final String errorMessage = outputFormat + UNSUPPORTED_FORMAT;
 				if (LOGGER.isLoggable(Level.WARNING)) {
 					LOGGER.warning(errorMessage);
 				}
 				throw new IllegalArgumentException(errorMessage);
 			}
+		}
 
-			DocumentValue docValue = new DocumentValue(content, mimeType, "jasper_report" + suffix);
-			setOutputParameter(REPORT_DOC_VALUE, docValue);
-			// Visualize new report file
-			// JasperViewer.viewReport(print, false);
-		} catch (final Exception e) {
-			if (LOGGER.isLoggable(Level.WARNING)) {
-				LOGGER.warning(e.toString());
-			}
-			throw e;
-		} finally {
-			// Cleanup before exit.
-			try {
-				if (conn != null) {
-					conn.rollback();
-					conn.close();
-				}
-			} catch (final Exception e) {
-				if (LOGGER.isLoggable(Level.WARNING)) {
-					LOGGER.warning("Exception during finally. Message: " + e.getMessage());
-				}
-				throw e;
+		// Visualize new report file
+		// JasperViewer.viewReport(print, false);
+		return new DocumentValue(content, mimeType, "jasper_report" + suffix);
+	}
+
+	private DocumentValue exportData(final JasperReportsContext context, final JasperReport report, final Map<String, Object> typedParameters,
+			final Connection conn, final ReportLimits limits) throws Exception {
+		try (ReportOutputStream outStream = new ReportOutputStream()) {
+			final long rows = DataExport.export(context, report, typedParameters, conn, dataFormat, limits, limits.limitSize(outStream));
+			if (LOGGER.isLoggable(Level.INFO)) {
+				LOGGER.info(rows + " rows of report " + report.getName() + " exported");
 			}
+			return new DocumentValue(outStream.toByteArray(), dataFormat.getMimeType(), "jasper_report." + dataFormat.name());
 		}
 	}
 
-	private JasperReport compile(InputStream inputStream) throws JRException {
-		try{
-			return getCompiler().compile(inputStream);
-		} catch (Exception e) {
-			e.printStackTrace();
-			LOGGER.warning("Unable to compile report with custom compiler, using jasper defaults");
-			LOGGER.log(Level.FINEST, "cause of the failed compilation: ", e);
+	/**
+	 * Compiles the report and its subreports. Reports missing from the cache are compiled together in a single compilation.
+	 * 
+	 * @return the master report, the subreports being added to the given repository
+	 */
+	private JasperReport compileWithSubreports(final SubreportRepository subreports) throws JRException {
+		if (subreportContents == null || subreportContents.isEmpty()) {
+			return ReportCompiler.getOrCompile(jrxmlContent, precompiled);
+		}
+		final List<String> fileNames = new ArrayList<String>();
+		final List<byte[]> contents = new ArrayList<byte[]>();
+		final List<Boolean> precompiledContents = new ArrayList<Boolean>();
+		fileNames.add(null);
+		contents.add(jrxmlContent);
+		precompiledContents.add(precompiled);
+		for (Map.Entry<String, byte[]> subreport : subreportContents.entrySet()) {
+			fileNames.add(subreport.getKey());
+			contents.add(subreport.getValue());
+			precompiledContents.add(ReportCompiler.isPrecompiled(subreport.getKey()));
 		}
-		return JasperCompileManager.compileReport(inputStream);
-	}
 
-	private JasperCompileManager getCompiler() {
-		LocalJasperReportsContext jasperReportsContext = new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance());
-		JRJdtCompiler.jasperReportsContext = jasperReportsContext;
-		jasperReportsContext.setProperty("net.sf.jasperreports.compiler.java", "org.bonitasoft.connectors.jasper.JRJdtCompiler");
-		jasperReportsContext.setClassLoader(Thread.currentThread().getContextClassLoader());
-		return JasperCompileManager.getInstance(jasperReportsContext);
+		final List<JasperReport> reports = ReportCompiler.getOrCompileAll(contents, precompiledContents);
+		for (int i = 1; i < reports.size(); i++) {
+			subreports.add(fileNames.get(i), reports.get(i));
+		}
+		return reports.get(0);
 	}
 
-	private Map<String, Object> getTypedParameters(final JasperReport report, final Map<String, String> parameters) {
-		final Map<String, Object> typedParameters = new HashMap<String, Object>();
-		for (final JRParameter param : report.getParameters()) {
-			final String paramName = param.getName();
-			final String paramType = param.getValueClassName();
-			final String value = parameters.get(paramName);
-			if (value != null && paramType != null) {
-				if (paramType.equals(String.class.getName())) {
-					typedParameters.put(paramName, value);
-				} else if (paramType.equals(Integer.class.getName())) {
-					try {
-						final Integer typedValue = Integer.parseInt(value);
-						typedParameters.put(paramName, typedValue);
-					} catch (final NumberFormatException e) {
-						throw new IllegalArgumentException("Invalid parameter type for " + paramName + ": " + Integer.class.getName()
-								+ " value is expected, current is " + value);
-					}
-				} else if (paramType.equals(Short.class.getName())) {
-					try {
-						final Short typedValue = Short.parseShort(value);
-						typedParameters.put(paramName, typedValue);
-					} catch (final NumberFormatException e) {
-						throw new IllegalArgumentException("Invalid parameter type for " + paramName + ": " + Short.class.getName()
-								+ " value is expected, current is " + value);
-					}
-				} else if (paramType.equals(Long.class.getName())) {
-					try {
-						final Long typedValue = Long.parseLong(value);
-						typedParameters.put(paramName, typedValue);
-					} catch (final NumberFormatException e) {
-						throw new IllegalArgumentException("Invalid parameter type for " + paramName + ": " + Long.class.getName()
-								+ " value is expected, current is " + value);
-					}
-				} else if (paramType.equals(Double.class.getName())) {
-					try {
-						final Double typedValue = Double.parseDouble(value);
-						typedParameters.put(paramName, typedValue);
-					} catch (final NumberFormatException e) {
-						throw new IllegalArgumentException("Invalid parameter type for " + paramName + ": " + Double.class.getName()
-								+ " value is expected, current is " + value);
-					}
-				} else if (paramType.equals(Float.class.getName())) {
-					try {
-						final Float typedValue = Float.parseFloat(value);
-						typedParameters.put(paramName, typedValue);
-					} catch (final NumberFormatException e) {
-						throw new IllegalArgumentException("Invalid parameter type for " + paramName + ": " + Float.class.getName()
-								+ " value is expected, current is " + value);
-					}
-				} else if (paramType.equals(BigDecimal.class.getName())) {
-					try {
-						final BigDecimal typedValue = new BigDecimal(value);
-						typedParameters.put(paramName, typedValue);
-					} catch (final NumberFormatException e) {
-						throw new IllegalArgumentException("Invalid parameter type for " + paramName + ": " + BigDecimal.class.getName()
-								+ " value is expected, current is " + value);
-					}
-				} else if (paramType.equals(Date.class.getName())) {
-					try {
-						final Date typedValue = new SimpleDateFormat().parse(value);
-						typedParameters.put(paramName, typedValue);
-					} catch (final ParseException e) {
-						throw new IllegalArgumentException("Invalid parameter type for " + paramName + ": " + Date.class.getName()
-								+ " value is expected, current is " + value);
-					}
-				} else if (paramType.equals(Boolean.class.getName())) {
-					final Boolean typedValue = Boolean.parseBoolean(value);
-					typedParameters.put(paramName, typedValue);
-				}
+	/**
+	 * Reports the failure of a report job in a process variable of type text.
+	 */
+	private static final class ErrorVariableListener implements ReportJobListener {
+
+		private final ProcessAPI processAPI;
+
+		private final String variableName;
+
+		ErrorVariableListener(final ProcessAPI processAPI, final String variableName) {
+			this.processAPI = processAPI;
+			this.variableName = variableName;
+		}
+
+		@Override
+		public void completed(final ReportJob job) {
+		}
+
+		@Override
+		public void failed(final ReportJob job, final Exception cause) {
+			final String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+			try {
+				processAPI.updateProcessDataInstance(variableName, job.getProcessInstanceId(), message);
+			} catch (final Exception e) {
+				throw new IllegalStateException("Unable to set variable " + variableName + " of process instance " + job.getProcessInstanceId(), e);
 			}
 		}
-		return typedParameters;
 	}
 
 }
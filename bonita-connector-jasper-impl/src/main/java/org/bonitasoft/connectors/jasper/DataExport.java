@@ -0,0 +1,333 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPropertiesHolder;
+import net.sf.jasperreports.engine.JRPropertiesMap;
+import net.sf.jasperreports.engine.JRQuery;
+import net.sf.jasperreports.engine.JRValueParameter;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.query.JRJdbcQueryExecuter;
+
+/**
+ * Exports the data of a report without filling it: the SQL query of the report is run with the report parameters and the
+ * fields of the report are written row by row as CSV or JSON Lines, straight from the result set.
+ * <p>
+ * The query is prepared by the JasperReports query executer, as for a fill, so that <code>$P{}</code>,
+ * <code>$P!{}</code> and <code>$X{}</code> parameters, the fetch size and the maximum number of rows are handled the
+ * same way, and the field values are read and typed as the fill reads them. Nothing is laid out and no row is kept: the
+ * memory used does not depend on the number of rows. Subreports, variables and the default value expressions of the
+ * parameters are not evaluated.
+ */
+public final class DataExport {
+
+    public enum Format {
+        csv("text/csv"), jsonl("application/x-ndjson");
+
+        private final String mimeType;
+
+        Format(final String mimeType) {
+            this.mimeType = mimeType;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * @return the format of the given name, ignoring case, or null if there is no such format
+         */
+        public static Format of(final String name) {
+            for (final Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private DataExport() {
+    }
+
+    /**
+     * Writes the rows of the report query to the given stream, which is left open.
+     *
+     * @param parameters
+     *            values of the report parameters, typed as the report expects them
+     * @return the number of rows written
+     * @throws JRException if the report has no SQL query or no field, or if the query fails
+     * @throws ReportLimits.LimitExceededException if the query returns more rows than the limit
+     */
+    public static long export(final JasperReportsContext jasperReportsContext, final JasperReport report,
+            final Map<String, Object> parameters, final Connection connection, final Format format, final ReportLimits limits,
+            final OutputStream outputStream) throws JRException, IOException {
+        final JRQuery query = report.getQuery();
+        if (query == null || !JRJdbcQueryExecuter.CANONICAL_LANGUAGE.equalsIgnoreCase(query.getLanguage())) {
+            throw new JRException("The data of report " + report.getName() + " cannot be exported: it has no SQL query");
+        }
+        final JRField[] fields = report.getFields();
+        if (fields == null || fields.length == 0) {
+            throw new JRException("The data of report " + report.getName() + " cannot be exported: it has no field");
+        }
+
+        final JRJdbcQueryExecuter executer = new JRJdbcQueryExecuter(jasperReportsContext, report.getMainDataset(),
+                valueParameters(report, parameters, connection));
+        try {
+            final JRDataSource dataSource = executer.createDatasource();
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (format == Format.csv) {
+                for (int i = 0; i < fields.length; i++) {
+                    writeCsv(writer, i, fields[i].getName());
+                }
+                writer.write('\n');
+            }
+            long rows = 0;
+            while (dataSource != null && dataSource.next()) {
+                limits.checkRows(++rows);
+                if (format == Format.csv) {
+                    for (int i = 0; i < fields.length; i++) {
+                        final Object value = dataSource.getFieldValue(fields[i]);
+                        writeCsv(writer, i, value == null ? "" : text(value));
+                    }
+                    writer.write('\n');
+                } else {
+                    writer.write('{');
+                    for (int i = 0; i < fields.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writeJsonString(writer, fields[i].getName());
+                        writer.write(':');
+                        writeJson(writer, dataSource.getFieldValue(fields[i]));
+                    }
+                    writer.write("}\n");
+                }
+            }
+            writer.flush();
+            return rows;
+        } finally {
+            executer.close();
+        }
+    }
+
+    /**
+     * @return the parameters of the report with their values, as the query executer reads them
+     */
+    private static Map<String, JRValueParameter> valueParameters(final JasperReport report, final Map<String, Object> parameters,
+            final Connection connection) {
+        final Map<String, Object> values = new HashMap<>(parameters);
+        values.put(JRParameter.REPORT_CONNECTION, connection);
+        values.put(JRParameter.REPORT_PARAMETERS_MAP, values);
+        final Map<String, JRValueParameter> valueParameters = new HashMap<>();
+        for (final JRParameter parameter : report.getParameters()) {
+            valueParameters.put(parameter.getName(), new ValueParameter(parameter, values));
+        }
+        return valueParameters;
+    }
+
+    static String text(final Object value) {
+        if (value instanceof java.sql.Date || value instanceof Time || value instanceof Timestamp) {
+            return value.toString();
+        }
+        if (value instanceof Date) {
+            return new Timestamp(((Date) value).getTime()).toString();
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static void writeCsv(final Writer writer, final int column, final String text) throws IOException {
+        if (column > 0) {
+            writer.write(',');
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+        } else {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static void writeJson(final Writer writer, final Object value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof Boolean) {
+            writer.write(value.toString());
+        } else if (value instanceof Number && !isNotFinite((Number) value)) {
+            writer.write(text(value));
+        } else {
+            writeJsonString(writer, text(value));
+        }
+    }
+
+    private static boolean isNotFinite(final Number number) {
+        final double value = number.doubleValue();
+        return (number instanceof Double || number instanceof Float) && (Double.isNaN(value) || Double.isInfinite(value));
+    }
+
+    private static void writeJsonString(final Writer writer, final String text) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format(Locale.ENGLISH, "\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * A report parameter with its value.
+     */
+    private static final class ValueParameter implements JRValueParameter {
+
+        private final JRParameter parameter;
+
+        private final Map<String, Object> values;
+
+        ValueParameter(final JRParameter parameter, final Map<String, Object> values) {
+            this.parameter = parameter;
+            this.values = values;
+        }
+
+        @Override
+        public Object getValue() {
+            return values.get(parameter.getName());
+        }
+
+        @Override
+        public void setValue(final Object value) {
+            values.put(parameter.getName(), value);
+        }
+
+        @Override
+        public String getName() {
+            return parameter.getName();
+        }
+
+        @Override
+        public String getDescription() {
+            return parameter.getDescription();
+        }
+
+        /**
+         * Does nothing: the description of the parameter belongs to the compiled report, which is shared.
+         */
+        @Override
+        public void setDescription(final String description) {
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return parameter.getValueClass();
+        }
+
+        @Override
+        public String getValueClassName() {
+            return parameter.getValueClassName();
+        }
+
+        @Override
+        public boolean isSystemDefined() {
+            return parameter.isSystemDefined();
+        }
+
+        @Override
+        public boolean isForPrompting() {
+            return parameter.isForPrompting();
+        }
+
+        @Override
+        public JRExpression getDefaultValueExpression() {
+            return parameter.getDefaultValueExpression();
+        }
+
+        @Override
+        public Class<?> getNestedType() {
+            return parameter.getNestedType();
+        }
+
+        @Override
+        public String getNestedTypeName() {
+            return parameter.getNestedTypeName();
+        }
+
+        @Override
+        public boolean hasProperties() {
+            return parameter.hasProperties();
+        }
+
+        @Override
+        public JRPropertiesMap getPropertiesMap() {
+            return parameter.getPropertiesMap();
+        }
+
+        @Override
+        public JRPropertiesHolder getParentProperties() {
+            return parameter.getParentProperties();
+        }
+
+        @Override
+        public Object clone() {
+            return new ValueParameter(parameter, values);
+        }
+    }
+
+}
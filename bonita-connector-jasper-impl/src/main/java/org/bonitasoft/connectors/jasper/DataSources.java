@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+/**
+ * Resolves the server managed data sources used by the connector.
+ * <p>
+ * Names are first looked up among the data sources registered in process with {@link #register(String, DataSource)},
+ * then in JNDI. Data sources found in JNDI are kept to avoid creating a naming context on every execution.
+ */
+public class DataSources {
+
+    private static final ConcurrentMap<String, DataSource> REGISTERED = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, DataSource> RESOLVED = new ConcurrentHashMap<>();
+
+    private DataSources() {
+    }
+
+    /**
+     * Registers a data source under the given name, taking precedence over JNDI.
+     */
+    public static void register(final String name, final DataSource dataSource) {
+        REGISTERED.put(name, dataSource);
+    }
+
+    public static void unregister(final String name) {
+        REGISTERED.remove(name);
+        RESOLVED.remove(name);
+    }
+
+    /**
+     * @throws NamingException if the name is not bound or is not bound to a {@link DataSource}
+     */
+    public static DataSource lookup(final String name) throws NamingException {
+        DataSource dataSource = REGISTERED.get(name);
+        if (dataSource == null) {
+            dataSource = RESOLVED.get(name);
+        }
+        if (dataSource == null) {
+            final InitialContext context = new InitialContext();
+            try {
+                final Object bound = context.lookup(name);
+                if (!(bound instanceof DataSource)) {
+                    throw new NamingException(name + " is not bound to a javax.sql.DataSource");
+                }
+                dataSource = (DataSource) bound;
+            } finally {
+                context.close();
+            }
+            RESOLVED.put(name, dataSource);
+        }
+        return dataSource;
+    }
+
+}
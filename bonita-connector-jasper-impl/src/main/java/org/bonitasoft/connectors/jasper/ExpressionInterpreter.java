@@ -0,0 +1,867 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRExpressionChunk;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.engine.design.JRCompilationUnit;
+import net.sf.jasperreports.engine.design.JRSourceCompileTask;
+import net.sf.jasperreports.engine.fill.JREvaluator;
+import net.sf.jasperreports.engine.fill.JRFillField;
+import net.sf.jasperreports.engine.fill.JRFillParameter;
+import net.sf.jasperreports.engine.fill.JRFillVariable;
+
+/**
+ * Evaluates simple report expressions without generating nor compiling Java code.
+ * <p>
+ * Supported expressions are made of parameter, field and variable references, resources, <code>null</code>, boolean,
+ * string and decimal numeric literals, the <code>+ - * / %</code> operators with parentheses, and the construction of
+ * boxed numbers, booleans, strings and {@link BigDecimal}s, such as <code>new java.lang.Integer(1)</code>. They are typed
+ * and evaluated following the Java rules, as the generated expression class would: <code>$F{firstname} + " " +
+ * $F{lastname}</code> is a concatenation, <code>$V{total} * 2</code> an arithmetic operation on the unboxed value. A
+ * compilation unit holding any other expression is left to the Java compiler.
+ */
+public final class ExpressionInterpreter {
+
+    private static final String JAVA_LANG = "java.lang.";
+
+    private static final String JAVA_MATH = "java.math.";
+
+    /** Static type of the <code>null</code> literal. */
+    private static final Class<?> NULL_TYPE = Void.class;
+
+    private static final Map<String, Class<?>> KNOWN_CLASSES = new HashMap<>();
+
+    static {
+        for (final Class<?> knownClass : new Class<?>[] { String.class, Boolean.class, Byte.class, Short.class, Integer.class,
+                Long.class, Float.class, Double.class, Number.class, BigDecimal.class }) {
+            KNOWN_CLASSES.put(knownClass.getName(), knownClass);
+        }
+    }
+
+    private ExpressionInterpreter() {
+    }
+
+    /**
+     * @return the data needed to evaluate the expressions of the unit, or null if one of them cannot be interpreted
+     */
+    public static Serializable interpret(final JRCompilationUnit unit) {
+        final JRSourceCompileTask task = unit.getCompileTask();
+        final Map<Integer, Node> expressions = new HashMap<>();
+        for (final JRExpression expression : unit.getExpressions()) {
+            final Node node = new Parser(task).parse(expression);
+            if (node == null) {
+                return null;
+            }
+            expressions.put(task.getExpressionId(expression), node);
+        }
+        return new InterpretedUnit(expressions, task.isOnlyDefaultEvaluation());
+    }
+
+    /**
+     * @return true if the compile data was created by {@link #interpret(JRCompilationUnit)}
+     */
+    public static boolean isInterpreted(final Serializable compileData) {
+        return compileData instanceof InterpretedUnit;
+    }
+
+    public static JREvaluator createEvaluator(final Serializable compileData) {
+        return new Evaluator((InterpretedUnit) compileData);
+    }
+
+    private static final class InterpretedUnit implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final Map<Integer, Node> expressions;
+
+        final boolean onlyDefaultEvaluation;
+
+        InterpretedUnit(final Map<Integer, Node> expressions, final boolean onlyDefaultEvaluation) {
+            this.expressions = expressions;
+            this.onlyDefaultEvaluation = onlyDefaultEvaluation;
+        }
+    }
+
+    private static final class Evaluator extends JREvaluator {
+
+        private final InterpretedUnit unit;
+
+        Map<String, JRFillParameter> parameters;
+
+        Map<String, JRFillField> fields;
+
+        Map<String, JRFillVariable> variables;
+
+        Evaluator(final InterpretedUnit unit) {
+            this.unit = unit;
+        }
+
+        @Override
+        protected void customizedInit(final Map<String, JRFillParameter> parametersMap, final Map<String, JRFillField> fieldsMap,
+                final Map<String, JRFillVariable> variablesMap) {
+            parameters = parametersMap;
+            fields = fieldsMap;
+            variables = variablesMap;
+        }
+
+        @Override
+        protected Object evaluate(final int id) {
+            return evaluate(id, JRExpression.EVALUATION_DEFAULT);
+        }
+
+        @Override
+        protected Object evaluateOld(final int id) {
+            return unit.onlyDefaultEvaluation ? null : evaluate(id, JRExpression.EVALUATION_OLD);
+        }
+
+        @Override
+        protected Object evaluateEstimated(final int id) {
+            return unit.onlyDefaultEvaluation ? null : evaluate(id, JRExpression.EVALUATION_ESTIMATED);
+        }
+
+        private Object evaluate(final int id, final byte evaluation) {
+            final Node node = unit.expressions.get(id);
+            return node == null ? null : node.evaluate(this, evaluation);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Expression tree
+
+    private abstract static class Node implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /** Static Java type of the expression: a primitive type for numeric and boolean results. */
+        final Class<?> type;
+
+        Node(final Class<?> type) {
+            this.type = type;
+        }
+
+        abstract Object evaluate(Evaluator evaluator, byte evaluation);
+    }
+
+    private static final class Literal extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+
+        Literal(final Class<?> type, final Object value) {
+            super(type);
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(final Evaluator evaluator, final byte evaluation) {
+            return value;
+        }
+    }
+
+    private static final class Reference extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte kind;
+
+        private final String name;
+
+        Reference(final Class<?> type, final byte kind, final String name) {
+            super(type);
+            this.kind = kind;
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(final Evaluator evaluator, final byte evaluation) {
+            final Object value;
+            final Class<?> valueClass;
+            switch (kind) {
+                case JRExpressionChunk.TYPE_PARAMETER:
+                    final JRFillParameter parameter = evaluator.parameters.get(name);
+                    value = parameter.getValue();
+                    valueClass = parameter.getValueClass();
+                    break;
+                case JRExpressionChunk.TYPE_FIELD:
+                    final JRFillField field = evaluator.fields.get(name);
+                    value = field.getValue(evaluation);
+                    valueClass = field.getValueClass();
+                    break;
+                default:
+                    final JRFillVariable variable = evaluator.variables.get(name);
+                    value = variable.getValue(evaluation);
+                    valueClass = variable.getValueClass();
+                    break;
+            }
+            // the generated code casts the value to its declared class
+            if (value != null && !valueClass.isInstance(value)) {
+                throw new ClassCastException(value.getClass().getName() + " cannot be cast to " + valueClass.getName());
+            }
+            return value;
+        }
+    }
+
+    private static final class Resource extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String key;
+
+        Resource(final String key) {
+            super(String.class);
+            this.key = key;
+        }
+
+        @Override
+        Object evaluate(final Evaluator evaluator, final byte evaluation) {
+            return evaluator.str(key);
+        }
+    }
+
+    private static final class Concatenation extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Node left;
+
+        private final Node right;
+
+        Concatenation(final Node left, final Node right) {
+            super(String.class);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(final Evaluator evaluator, final byte evaluation) {
+            return String.valueOf(left.evaluate(evaluator, evaluation)) + String.valueOf(right.evaluate(evaluator, evaluation));
+        }
+    }
+
+    private static final class Arithmetic extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        private final char operator;
+
+        private final Node left;
+
+        private final Node right;
+
+        Arithmetic(final Class<?> type, final char operator, final Node left, final Node right) {
+            super(type);
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(final Evaluator evaluator, final byte evaluation) {
+            final Number a = unbox(left.evaluate(evaluator, evaluation));
+            final Number b = unbox(right.evaluate(evaluator, evaluation));
+            if (type == int.class) {
+                final int x = a.intValue();
+                final int y = b.intValue();
+                switch (operator) {
+                    case '+':
+                        return x + y;
+                    case '-':
+                        return x - y;
+                    case '*':
+                        return x * y;
+                    case '/':
+                        return x / y;
+                    default:
+                        return x % y;
+                }
+            }
+            if (type == long.class) {
+                final long x = a.longValue();
+                final long y = b.longValue();
+                switch (operator) {
+                    case '+':
+                        return x + y;
+                    case '-':
+                        return x - y;
+                    case '*':
+                        return x * y;
+                    case '/':
+                        return x / y;
+                    default:
+                        return x % y;
+                }
+            }
+            if (type == float.class) {
+                final float x = a.floatValue();
+                final float y = b.floatValue();
+                switch (operator) {
+                    case '+':
+                        return x + y;
+                    case '-':
+                        return x - y;
+                    case '*':
+                        return x * y;
+                    case '/':
+                        return x / y;
+                    default:
+                        return x % y;
+                }
+            }
+            final double x = a.doubleValue();
+            final double y = b.doubleValue();
+            switch (operator) {
+                case '+':
+                    return x + y;
+                case '-':
+                    return x - y;
+                case '*':
+                    return x * y;
+                case '/':
+                    return x / y;
+                default:
+                    return x % y;
+            }
+        }
+    }
+
+    private static final class Unary extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean negate;
+
+        private final Node operand;
+
+        Unary(final Class<?> type, final boolean negate, final Node operand) {
+            super(type);
+            this.negate = negate;
+            this.operand = operand;
+        }
+
+        @Override
+        Object evaluate(final Evaluator evaluator, final byte evaluation) {
+            final Number value = unbox(operand.evaluate(evaluator, evaluation));
+            if (type == int.class) {
+                return negate ? -value.intValue() : value.intValue();
+            }
+            if (type == long.class) {
+                return negate ? -value.longValue() : value.longValue();
+            }
+            if (type == float.class) {
+                return negate ? -value.floatValue() : value.floatValue();
+            }
+            return negate ? -value.doubleValue() : value.doubleValue();
+        }
+    }
+
+    private static final class Construction extends Node {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Node argument;
+
+        Construction(final Class<?> type, final Node argument) {
+            super(type);
+            this.argument = argument;
+        }
+
+        @Override
+        Object evaluate(final Evaluator evaluator, final byte evaluation) {
+            final Object value = argument.evaluate(evaluator, evaluation);
+            if (argument.type == String.class) {
+                final String text = (String) value;
+                if (type == String.class) {
+                    return new String(text);
+                }
+                if (type == Boolean.class) {
+                    return Boolean.valueOf(text);
+                }
+                if (type == Integer.class) {
+                    return Integer.valueOf(text);
+                }
+                if (type == Long.class) {
+                    return Long.valueOf(text);
+                }
+                if (type == Float.class) {
+                    return Float.valueOf(text);
+                }
+                if (type == Double.class) {
+                    return Double.valueOf(text);
+                }
+                return new BigDecimal(text);
+            }
+            if (type == Boolean.class) {
+                return unboxBoolean(value);
+            }
+            final Number number = unbox(value);
+            if (type == Integer.class) {
+                return number.intValue();
+            }
+            if (type == Long.class) {
+                return number.longValue();
+            }
+            if (type == Float.class) {
+                return number.floatValue();
+            }
+            if (type == Double.class) {
+                return number.doubleValue();
+            }
+            final Class<?> argumentType = numericType(argument.type);
+            if (argumentType == int.class) {
+                return new BigDecimal(number.intValue());
+            }
+            if (argumentType == long.class) {
+                return new BigDecimal(number.longValue());
+            }
+            return new BigDecimal(number.doubleValue());
+        }
+    }
+
+    private static Number unbox(final Object value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        return (Number) value;
+    }
+
+    private static Boolean unboxBoolean(final Object value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        return (Boolean) value;
+    }
+
+    /**
+     * @return the primitive type the given type is promoted to in arithmetic operations, or null if it is not numeric
+     */
+    private static Class<?> numericType(final Class<?> type) {
+        if (type == int.class || type == Integer.class || type == Short.class || type == Byte.class) {
+            return int.class;
+        }
+        if (type == long.class || type == Long.class) {
+            return long.class;
+        }
+        if (type == float.class || type == Float.class) {
+            return float.class;
+        }
+        if (type == double.class || type == Double.class) {
+            return double.class;
+        }
+        return null;
+    }
+
+    private static Class<?> promote(final Class<?> a, final Class<?> b) {
+        if (a == double.class || b == double.class) {
+            return double.class;
+        }
+        if (a == float.class || b == float.class) {
+            return float.class;
+        }
+        if (a == long.class || b == long.class) {
+            return long.class;
+        }
+        return int.class;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Parsing
+
+    private static final class Token {
+
+        final String text;
+
+        final Node node;
+
+        Token(final String text, final Node node) {
+            this.text = text;
+            this.node = node;
+        }
+
+        boolean is(final String operator) {
+            return node == null && operator.equals(text);
+        }
+
+        boolean isIdentifier() {
+            return node == null && Character.isJavaIdentifierStart(text.charAt(0));
+        }
+    }
+
+    /**
+     * Parses one expression, returning null as soon as it uses anything that is not supported or would not compile.
+     */
+    private static final class Parser {
+
+        private final JRSourceCompileTask task;
+
+        private List<Token> tokens;
+
+        private int position;
+
+        Parser(final JRSourceCompileTask task) {
+            this.task = task;
+        }
+
+        Node parse(final JRExpression expression) {
+            final JRExpressionChunk[] chunks = expression.getChunks();
+            if (chunks == null || chunks.length == 0) {
+                return new Literal(NULL_TYPE, null);
+            }
+            tokens = new ArrayList<>();
+            for (final JRExpressionChunk chunk : chunks) {
+                if (!tokenize(chunk)) {
+                    return null;
+                }
+            }
+            position = 0;
+            final Node node = additive();
+            return position == tokens.size() ? node : null;
+        }
+
+        private boolean tokenize(final JRExpressionChunk chunk) {
+            final String text = chunk.getText() == null ? "" : chunk.getText();
+            switch (chunk.getType()) {
+                case JRExpressionChunk.TYPE_TEXT:
+                    return tokenize(text);
+                case JRExpressionChunk.TYPE_PARAMETER:
+                    final JRParameter parameter = task.getParametersMap().get(text);
+                    return parameter != null && addReference(parameter.getValueClassName(), JRExpressionChunk.TYPE_PARAMETER, text);
+                case JRExpressionChunk.TYPE_FIELD:
+                    final JRField field = task.getFieldsMap().get(text);
+                    return field != null && addReference(field.getValueClassName(), JRExpressionChunk.TYPE_FIELD, text);
+                case JRExpressionChunk.TYPE_VARIABLE:
+                    final JRVariable variable = task.getVariablesMap().get(text);
+                    return variable != null && addReference(variable.getValueClassName(), JRExpressionChunk.TYPE_VARIABLE, text);
+                case JRExpressionChunk.TYPE_RESOURCE:
+                    tokens.add(new Token(text, new Resource(text)));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean addReference(final String valueClassName, final byte kind, final String name) {
+            final Class<?> knownClass = KNOWN_CLASSES.get(valueClassName);
+            tokens.add(new Token(name, new Reference(knownClass != null ? knownClass : Object.class, kind, name)));
+            return true;
+        }
+
+        private boolean tokenize(final String text) {
+            int i = 0;
+            while (i < text.length()) {
+                final char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '"') {
+                    i = string(text, i);
+                } else if (c >= '0' && c <= '9') {
+                    i = number(text, i);
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    int end = i + 1;
+                    while (end < text.length() && Character.isJavaIdentifierPart(text.charAt(end))) {
+                        end++;
+                    }
+                    final String word = text.substring(i, end);
+                    if ("true".equals(word) || "false".equals(word)) {
+                        tokens.add(new Token(word, new Literal(boolean.class, Boolean.valueOf(word))));
+                    } else if ("null".equals(word)) {
+                        tokens.add(new Token(word, new Literal(NULL_TYPE, null)));
+                    } else {
+                        tokens.add(new Token(word, null));
+                    }
+                    i = end;
+                } else if ("+-*/%().".indexOf(c) >= 0) {
+                    final String next = i + 1 < text.length() ? text.substring(i, i + 2) : "";
+                    if ("++".equals(next) || "--".equals(next) || "//".equals(next) || "/*".equals(next)) {
+                        return false;
+                    }
+                    tokens.add(new Token(String.valueOf(c), null));
+                    i++;
+                } else {
+                    return false;
+                }
+                if (i < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the index following the string literal, or -1 if it is not supported
+         */
+        private int string(final String text, final int start) {
+            final StringBuilder value = new StringBuilder();
+            int i = start + 1;
+            while (i < text.length()) {
+                char c = text.charAt(i++);
+                if (c == '"') {
+                    tokens.add(new Token(text.substring(start, i), new Literal(String.class, value.toString())));
+                    return i;
+                }
+                if (c == '\n' || c == '\r') {
+                    return -1;
+                }
+                if (c == '\\') {
+                    if (i >= text.length()) {
+                        return -1;
+                    }
+                    c = text.charAt(i++);
+                    switch (c) {
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 't':
+                            c = '\t';
+                            break;
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case 'f':
+                            c = '\f';
+                            break;
+                        case 'r':
+                            c = '\r';
+                            break;
+                        case '"':
+                        case '\'':
+                        case '\\':
+                            break;
+                        default:
+                            return -1;
+                    }
+                }
+                value.append(c);
+            }
+            return -1;
+        }
+
+        /**
+         * Reads a decimal integer or floating point literal.
+         *
+         * @return the index following the literal, or -1 if it is not supported
+         */
+        private int number(final String text, final int start) {
+            int i = start;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                i++;
+            }
+            boolean floating = false;
+            if (i < text.length() && text.charAt(i) == '.' && i + 1 < text.length() && Character.isDigit(text.charAt(i + 1))) {
+                floating = true;
+                i++;
+                while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                    i++;
+                }
+            }
+            if (i < text.length() && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+                floating = true;
+                i++;
+                if (i < text.length() && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                    i++;
+                }
+                final int exponent = i;
+                while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                    i++;
+                }
+                if (i == exponent) {
+                    return -1;
+                }
+            }
+            final String digits = text.substring(start, i);
+            final char suffix = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (suffix == 'l' || suffix == 'f' || suffix == 'd') {
+                i++;
+            }
+            if (i < text.length() && (Character.isJavaIdentifierPart(text.charAt(i)) || text.charAt(i) == '.')) {
+                // hexadecimal, underscores, a trailing dot...
+                return -1;
+            }
+            final Literal literal;
+            try {
+                if (suffix == 'f') {
+                    final float value = Float.parseFloat(digits);
+                    literal = Float.isInfinite(value) ? null : new Literal(float.class, value);
+                } else if (floating || suffix == 'd') {
+                    final double value = Double.parseDouble(digits);
+                    literal = Double.isInfinite(value) ? null : new Literal(double.class, value);
+                } else if (digits.length() > 1 && digits.charAt(0) == '0') {
+                    // octal
+                    literal = null;
+                } else if (suffix == 'l') {
+                    literal = new Literal(long.class, Long.parseLong(digits));
+                } else {
+                    literal = new Literal(int.class, Integer.parseInt(digits));
+                }
+            } catch (final NumberFormatException e) {
+                return -1;
+            }
+            if (literal == null) {
+                return -1;
+            }
+            tokens.add(new Token(text.substring(start, i), literal));
+            return i;
+        }
+
+        private Token peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        private boolean accept(final String operator) {
+            final Token token = peek();
+            if (token != null && token.is(operator)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private Node additive() {
+            Node left = multiplicative();
+            while (left != null) {
+                final Token token = peek();
+                if (token == null || !(token.is("+") || token.is("-"))) {
+                    break;
+                }
+                position++;
+                final Node right = multiplicative();
+                left = right == null ? null : binary(token.text.charAt(0), left, right);
+            }
+            return left;
+        }
+
+        private Node multiplicative() {
+            Node left = unary();
+            while (left != null) {
+                final Token token = peek();
+                if (token == null || !(token.is("*") || token.is("/") || token.is("%"))) {
+                    break;
+                }
+                position++;
+                final Node right = unary();
+                left = right == null ? null : binary(token.text.charAt(0), left, right);
+            }
+            return left;
+        }
+
+        private Node unary() {
+            final boolean negate = accept("-");
+            if (negate || accept("+")) {
+                // both unbox and promote their operand
+                final Node operand = unary();
+                final Class<?> type = operand == null ? null : numericType(operand.type);
+                return type == null ? null : new Unary(type, negate, operand);
+            }
+            return primary();
+        }
+
+        private Node primary() {
+            final Token token = peek();
+            if (token == null) {
+                return null;
+            }
+            position++;
+            if (token.node != null) {
+                return token.node;
+            }
+            if (token.is("(")) {
+                final Node node = additive();
+                return node != null && accept(")") ? node : null;
+            }
+            if (token.is("new")) {
+                return construction();
+            }
+            return null;
+        }
+
+        private Node construction() {
+            final StringBuilder name = new StringBuilder();
+            Token token = peek();
+            while (token != null && token.isIdentifier()) {
+                name.append(token.text);
+                position++;
+                if (!accept(".")) {
+                    break;
+                }
+                name.append('.');
+                token = peek();
+            }
+            final Class<?> type = getConstructedClass(name.toString());
+            if (type == null || !accept("(")) {
+                return null;
+            }
+            final Node argument = additive();
+            if (argument == null || !accept(")")) {
+                return null;
+            }
+            final Class<?> argumentType = argument.type;
+            final Class<?> numericType = numericType(argumentType);
+            final boolean applicable;
+            if (argumentType == String.class) {
+                applicable = true;
+            } else if (type == Boolean.class) {
+                applicable = argumentType == boolean.class || argumentType == Boolean.class;
+            } else if (type == Integer.class) {
+                applicable = numericType == int.class;
+            } else if (type == Long.class) {
+                applicable = numericType == int.class || numericType == long.class;
+            } else {
+                applicable = type != String.class && numericType != null;
+            }
+            return applicable ? new Construction(type, argument) : null;
+        }
+
+        /**
+         * @return the class of a supported constructor, or null. Simple names are only accepted when the report has no
+         *         imports of its own, which could hide the classes of <code>java.lang</code> and <code>java.math</code>.
+         */
+        private Class<?> getConstructedClass(final String name) {
+            String className = name;
+            if (name.indexOf('.') < 0) {
+                final String[] imports = task.getImports();
+                if (imports != null && imports.length > 0) {
+                    return null;
+                }
+                className = ("BigDecimal".equals(name) ? JAVA_MATH : JAVA_LANG) + name;
+            }
+            final Class<?> type = KNOWN_CLASSES.get(className);
+            return type == Number.class || type == Byte.class || type == Short.class ? null : type;
+        }
+
+        private Node binary(final char operator, final Node left, final Node right) {
+            if (operator == '+' && (left.type == String.class || right.type == String.class)) {
+                return new Concatenation(left, right);
+            }
+            final Class<?> a = numericType(left.type);
+            final Class<?> b = numericType(right.type);
+            if (a == null || b == null) {
+                return null;
+            }
+            return new Arithmetic(promote(a, b), operator, left, right);
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM-wide admission control of the report fills and exports, so that many cases reaching a reporting step at once do
+ * not exhaust the heap or the report database.
+ * <p>
+ * A report is filled and exported once it holds a permit. Permits are bounded globally by {@link #MAX_FILLS_PROPERTY},
+ * for each database by {@link #MAX_FILLS_PER_DATABASE_PROPERTY}, and optionally by a memory budget in megabytes, each
+ * report weighing the memory it is expected to need. Waiting reports are admitted in their order of arrival; a report
+ * not admitted within {@link #WAIT_TIMEOUT_PROPERTY} seconds is rejected with a {@link TimeoutException}. A limit of 0
+ * disables the corresponding bound.
+ */
+public class FillAdmission {
+
+    /** System property holding the number of reports filled at a time, unlimited by default. */
+    public static final String MAX_FILLS_PROPERTY = "org.bonitasoft.connectors.jasper.admission.maxFills";
+
+    /** System property holding the number of reports filled at a time from the same database. */
+    public static final String MAX_FILLS_PER_DATABASE_PROPERTY = "org.bonitasoft.connectors.jasper.admission.maxFillsPerDatabase";
+
+    /** System property holding the megabytes of memory shared by the reports being filled. */
+    public static final String MEMORY_BUDGET_PROPERTY = "org.bonitasoft.connectors.jasper.admission.memoryBudget";
+
+    /** System property holding the megabytes of memory a report is expected to need when it does not tell. */
+    public static final String DEFAULT_WEIGHT_PROPERTY = "org.bonitasoft.connectors.jasper.admission.defaultWeight";
+
+    /** System property holding the number of seconds a report waits for a permit before being rejected. */
+    public static final String WAIT_TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.admission.waitTimeout";
+
+    private static final int DEFAULT_WEIGHT = 64;
+
+    private static final int DEFAULT_WAIT_TIMEOUT = 300;
+
+    private static final FillAdmission INSTANCE = new FillAdmission(Integer.getInteger(MAX_FILLS_PROPERTY, 0), Integer.getInteger(
+            MAX_FILLS_PER_DATABASE_PROPERTY, 0), Integer.getInteger(MEMORY_BUDGET_PROPERTY, 0), Integer.getInteger(DEFAULT_WEIGHT_PROPERTY,
+            DEFAULT_WEIGHT), Integer.getInteger(WAIT_TIMEOUT_PROPERTY, DEFAULT_WAIT_TIMEOUT));
+
+    private final int maxFills;
+
+    private final int maxFillsPerDatabase;
+
+    private final int memoryBudget;
+
+    private final int defaultWeight;
+
+    private final long waitTimeoutSeconds;
+
+    private final Semaphore fills;
+
+    private final Semaphore memory;
+
+    private final ConcurrentMap<String, Semaphore> databases = new ConcurrentHashMap<>();
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    public FillAdmission(final int maxFills, final int maxFillsPerDatabase, final int memoryBudget, final int defaultWeight,
+            final long waitTimeoutSeconds) {
+        this.maxFills = maxFills;
+        this.maxFillsPerDatabase = maxFillsPerDatabase;
+        this.memoryBudget = memoryBudget;
+        this.defaultWeight = defaultWeight;
+        this.waitTimeoutSeconds = waitTimeoutSeconds;
+        fills = maxFills > 0 ? new Semaphore(maxFills, true) : null;
+        memory = memoryBudget > 0 ? new Semaphore(memoryBudget, true) : null;
+    }
+
+    public static FillAdmission getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits for a report to be admitted. The permit must be closed once the report is exported.
+     *
+     * @param database
+     *            the JDBC URL or data source name the report is filled from, null if none
+     * @param weight
+     *            megabytes of memory the report is expected to need, null for the default weight
+     * @throws TimeoutException
+     *             if the report is not admitted within the wait timeout
+     */
+    public Permit acquire(final String database, final Integer weight) throws InterruptedException, TimeoutException {
+        return acquire(database, weight, Long.MAX_VALUE);
+    }
+
+    /**
+     * Waits for a report to be admitted, for at most the wait timeout or the given time if shorter.
+     *
+     * @param maxWaitNanos
+     *            time left to the report, in nanoseconds
+     * @throws TimeoutException
+     *             if the report is not admitted in time
+     */
+    public Permit acquire(final String database, final Integer weight, final long maxWaitNanos) throws InterruptedException,
+            TimeoutException {
+        final Semaphore databaseFills = getDatabaseFills(database);
+        // a report weighing more than the whole budget waits for all the memory
+        final int memoryPermits = memory == null ? 0 : Math.min(memoryBudget, Math.max(1, weight != null ? weight : defaultWeight));
+        final long wait = Math.max(0, Math.min(TimeUnit.SECONDS.toNanos(waitTimeoutSeconds), maxWaitNanos));
+        final long deadline = System.nanoTime() + wait;
+        final Permit permit = new Permit(databaseFills, memoryPermits);
+        boolean admitted = false;
+        waitingCount.incrementAndGet();
+        try {
+            if (databaseFills != null) {
+                acquire(databaseFills, 1, deadline, wait, "database " + database + " already fills " + maxFillsPerDatabase + " reports");
+                permit.databaseAcquired = true;
+            }
+            if (fills != null) {
+                acquire(fills, 1, deadline, wait, maxFills + " reports are already being filled");
+                permit.fillAcquired = true;
+            }
+            if (memoryPermits > 0) {
+                acquire(memory, memoryPermits, deadline, wait, "the " + memoryPermits + " MB it needs are not available in the memory budget of "
+                        + memoryBudget + " MB");
+                permit.memoryAcquired = true;
+            }
+            admitted = true;
+        } finally {
+            waitingCount.decrementAndGet();
+            if (!admitted) {
+                permit.release();
+            }
+        }
+        activeCount.incrementAndGet();
+        return permit;
+    }
+
+    private void acquire(final Semaphore semaphore, final int permits, final long deadline, final long wait, final String reason)
+            throws InterruptedException, TimeoutException {
+        if (!semaphore.tryAcquire(permits, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("The report was not admitted within " + TimeUnit.NANOSECONDS.toSeconds(wait) + " seconds: " + reason + ", "
+                    + activeCount.get() + " reports are being filled and " + waitingCount.get() + " are waiting");
+        }
+    }
+
+    private Semaphore getDatabaseFills(final String database) {
+        if (maxFillsPerDatabase <= 0 || database == null) {
+            return null;
+        }
+        Semaphore databaseFills = databases.get(database);
+        if (databaseFills == null) {
+            final Semaphore created = new Semaphore(maxFillsPerDatabase, true);
+            databaseFills = databases.putIfAbsent(database, created);
+            if (databaseFills == null) {
+                databaseFills = created;
+            }
+        }
+        return databaseFills;
+    }
+
+    /**
+     * @return the number of reports admitted and not yet exported
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * @return the number of reports waiting to be admitted
+     */
+    public int getQueueLength() {
+        return waitingCount.get();
+    }
+
+    /**
+     * @return the number of reports admitted from the given database and not yet exported, or -1 if the database is not
+     *         bounded
+     */
+    public int getActiveCount(final String database) {
+        final Semaphore databaseFills = database == null ? null : databases.get(database);
+        return databaseFills == null ? -1 : maxFillsPerDatabase - databaseFills.availablePermits();
+    }
+
+    /**
+     * @return the megabytes of the memory budget not held by a report, or -1 if there is no memory budget
+     */
+    public int getAvailableMemory() {
+        return memory == null ? -1 : memory.availablePermits();
+    }
+
+    /**
+     * The admission of a report, released when closed.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final Semaphore databaseFills;
+
+        private final int memoryPermits;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private boolean databaseAcquired;
+
+        private boolean fillAcquired;
+
+        private boolean memoryAcquired;
+
+        Permit(final Semaphore databaseFills, final int memoryPermits) {
+            this.databaseFills = databaseFills;
+            this.memoryPermits = memoryPermits;
+        }
+
+        private void release() {
+            if (memoryAcquired) {
+                memory.release(memoryPermits);
+            }
+            if (fillAcquired) {
+                fills.release();
+            }
+            if (databaseAcquired) {
+                databaseFills.release();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release();
+                activeCount.decrementAndGet();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExporterParameter;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.export.JRHtmlExporter;
+import net.sf.jasperreports.engine.export.JRHtmlExporterParameter;
+
+/**
+ * Exports a report as a zip holding the HTML page and the images it refers to.
+ * <p>
+ * The page is written straight into its zip entry and the images are collected in memory by the exporter, then added under
+ * the <code>&lt;page&gt;_files/</code> directory the page refers to. Nothing is written to the file system.
+ */
+public class HtmlZipExporter {
+
+    private HtmlZipExporter() {
+    }
+
+    /**
+     * Writes the zip to the given stream, which is left open.
+     *
+     * @param htmlName
+     *            name of the HTML page in the zip, such as <code>report.html</code>
+     */
+    public static void export(final JasperPrint print, final String htmlName, final OutputStream outputStream) throws JRException, IOException {
+        final String imagesDirectory = htmlName + "_files/";
+        final Map<String, byte[]> images = new LinkedHashMap<String, byte[]>();
+        // closing the zip releases its native deflater, without closing the given stream
+        try (ZipOutputStream zip = new ZipOutputStream(new UnclosedOutputStream(outputStream))) {
+            zip.putNextEntry(new ZipEntry(htmlName));
+            final JRHtmlExporter exporter = new JRHtmlExporter();
+            exporter.setParameter(JRExporterParameter.JASPER_PRINT, print);
+            exporter.setParameter(JRExporterParameter.OUTPUT_STREAM, zip);
+            exporter.setParameter(JRHtmlExporterParameter.IMAGES_MAP, images);
+            exporter.setParameter(JRHtmlExporterParameter.IMAGES_URI, imagesDirectory);
+            exporter.setParameter(JRHtmlExporterParameter.IS_OUTPUT_IMAGES_TO_DIR, Boolean.FALSE);
+            exporter.setParameter(JRHtmlExporterParameter.FLUSH_OUTPUT, Boolean.TRUE);
+            exporter.exportReport();
+            zip.closeEntry();
+
+            for (final Map.Entry<String, byte[]> image : images.entrySet()) {
+                zip.putNextEntry(new ZipEntry(imagesDirectory + image.getKey()));
+                zip.write(image.getValue());
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Passes writes straight to the given stream, and only flushes it when closed.
+     */
+    private static final class UnclosedOutputStream extends FilterOutputStream {
+
+        UnclosedOutputStream(final OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+}
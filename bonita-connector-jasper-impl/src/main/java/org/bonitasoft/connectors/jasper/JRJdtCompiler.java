@@ -16,15 +16,22 @@ package org.bonitasoft.connectors.jasper;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.lang.reflect.Constructor;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -44,67 +51,219 @@ import org.eclipse.jdt.internal.compiler.env.NameEnvironmentAnswer;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
 
+import net.sf.jasperreports.crosstabs.JRCrosstab;
+import net.sf.jasperreports.crosstabs.design.JRDesignCrosstab;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRDataset;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRReport;
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
 import net.sf.jasperreports.engine.design.JRAbstractJavaCompiler;
 import net.sf.jasperreports.engine.design.JRClassGenerator;
 import net.sf.jasperreports.engine.design.JRCompilationSourceCode;
 import net.sf.jasperreports.engine.design.JRCompilationUnit;
-import net.sf.jasperreports.engine.design.JRJavacCompiler;
+import net.sf.jasperreports.engine.design.JRCompiler;
+import net.sf.jasperreports.engine.design.JRDesignDataset;
+import net.sf.jasperreports.engine.design.JRReportCompileData;
 import net.sf.jasperreports.engine.design.JRSourceCompileTask;
+import net.sf.jasperreports.engine.design.JRValidationException;
+import net.sf.jasperreports.engine.design.JRValidationFault;
+import net.sf.jasperreports.engine.design.JRVerifier;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.JREvaluator;
 import net.sf.jasperreports.engine.util.JRClassLoader;
-import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRElementsVisitor;
+import net.sf.jasperreports.engine.util.JRVisitorSupport;
 
 public class JRJdtCompiler extends JRAbstractJavaCompiler {
 
+    /**
+     * Report, JasperReports or system property selecting how expressions are evaluated: <code>compiled</code> (the
+     * default) generates and compiles a Java class for each dataset, <code>interpreted</code> evaluates the expressions of a
+     * dataset with the {@link ExpressionInterpreter} when they are all simple enough, and compiles them otherwise.
+     */
+    public static final String EXPRESSIONS_PROPERTY = "org.bonitasoft.connectors.jasper.compiler.expressions";
+
+    public static final String EXPRESSIONS_INTERPRETED = "interpreted";
+
     private static final String JDT_PROPERTIES_PREFIX = "org.eclipse.jdt.core.";
 
     private static final Log log = LogFactory.getLog(JRJdtCompiler.class);
 
-    private final ClassLoader classLoader;
+    /** Creates a NameEnvironmentAnswer from an IBinaryType, resolved once for the JDT version in use. */
+    private static final MethodHandle BINARY_ANSWER;
 
-    private Constructor<?> constrNameEnvAnsBin;
-    private Constructor<?> constrNameEnvAnsCompUnit;
+    /** Creates a NameEnvironmentAnswer from an ICompilationUnit, resolved once for the JDT version in use. */
+    private static final MethodHandle SOURCE_ANSWER;
 
-    private boolean is2ArgsConstr;
-    private Constructor<?> constrNameEnvAnsBin2Args;
-    private Constructor<?> constrNameEnvAnsCompUnit2Args;
+    private static final NoSuchMethodException ANSWER_LOOKUP_ERROR;
 
-    public static JasperReportsContext jasperReportsContext;
+    private static final ConcurrentMap<Locale, IProblemFactory> PROBLEM_FACTORIES = new ConcurrentHashMap<>();
+
+    private static volatile JdtSettings settingsSnapshot;
+
+    private static final Random NAME_SUFFIX_RANDOM = new Random();
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle binaryAnswer = null;
+        MethodHandle sourceAnswer = null;
+        NoSuchMethodException lookupError = null;
+        try {
+            final Class<?> classAccessRestriction = NameEnvironmentAnswer.class.getClassLoader()
+                    .loadClass("org.eclipse.jdt.internal.compiler.env.AccessRestriction");
+            // the access restriction is always null
+            binaryAnswer = MethodHandles.insertArguments(lookup.findConstructor(NameEnvironmentAnswer.class,
+                    MethodType.methodType(void.class, IBinaryType.class, classAccessRestriction)), 1, (Object) null);
+            sourceAnswer = MethodHandles.insertArguments(lookup.findConstructor(NameEnvironmentAnswer.class,
+                    MethodType.methodType(void.class, ICompilationUnit.class, classAccessRestriction)), 1, (Object) null);
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException e) {
+            try {
+                binaryAnswer = lookup.findConstructor(NameEnvironmentAnswer.class, MethodType.methodType(void.class, IBinaryType.class));
+                sourceAnswer = lookup.findConstructor(NameEnvironmentAnswer.class,
+                        MethodType.methodType(void.class, ICompilationUnit.class));
+            } catch (NoSuchMethodException | IllegalAccessException ex) {
+                lookupError = new NoSuchMethodException("No usable NameEnvironmentAnswer constructor");
+                lookupError.initCause(ex);
+            }
+        }
+        BINARY_ANSWER = binaryAnswer;
+        SOURCE_ANSWER = sourceAnswer;
+        ANSWER_LOOKUP_ERROR = lookupError;
+    }
+
+    private final ClassLoader classLoader;
 
     /**
-     *
+     * Creates a compiler using the default JasperReports context, as done by {@link net.sf.jasperreports.engine.JasperCompileManager}
+     * when the compiler is set with the <code>net.sf.jasperreports.compiler.java</code> property.
      */
     public JRJdtCompiler() {
+        this(DefaultJasperReportsContext.getInstance());
+    }
+
+    /**
+     * Creates a compiler using the given context and the class loader of the current thread. Each compiler holds its own
+     * configuration, so that reports can be compiled concurrently with different contexts.
+     */
+    public JRJdtCompiler(final JasperReportsContext jasperReportsContext) {
         super(jasperReportsContext, false);
+        if (ANSWER_LOOKUP_ERROR != null) {
+            throw new JRRuntimeException("Error loading the compiler", ANSWER_LOOKUP_ERROR);
+        }
         classLoader = getClassLoader();
-        try {
-            Class<?> classAccessRestriction = NameEnvironmentAnswer.class.getClassLoader()
-                    .loadClass("org.eclipse.jdt.internal.compiler.env.AccessRestriction");
-            constrNameEnvAnsBin2Args = NameEnvironmentAnswer.class.getConstructor(IBinaryType.class, classAccessRestriction);
-            constrNameEnvAnsCompUnit2Args = NameEnvironmentAnswer.class.getConstructor(ICompilationUnit.class,
-                    classAccessRestriction);
-            is2ArgsConstr = true;
-        } catch (NoSuchMethodException | ClassNotFoundException e) {
-            try {
-                constrNameEnvAnsBin = NameEnvironmentAnswer.class.getConstructor(IBinaryType.class);
-                constrNameEnvAnsCompUnit = NameEnvironmentAnswer.class.getConstructor(ICompilationUnit.class);
-                is2ArgsConstr = false;
-            } catch (NoSuchMethodException ex) {
-                throw new JRRuntimeException("Error loading the compiler", ex);
-            }
+    }
+
+    /**
+     * Drops the snapshot of the JDT settings read from the default JasperReports context and from the system properties.
+     * The snapshot is otherwise rebuilt on the next compilation once these properties change.
+     */
+    public static void invalidateSettings() {
+        settingsSnapshot = null;
+    }
+
+    /**
+     * Compiles several reports, such as a master report and its subreports, with a single JDT compilation sharing one name
+     * environment. The expressions of all the reports must compile; the reports are returned in the order of the designs.
+     *
+     * @throws JRException if a design is not valid or if expressions of any of the reports do not compile
+     */
+    public List<JasperReport> compileReports(final List<JasperDesign> designs) throws JRException {
+        final List<ReportUnits> reports = new ArrayList<>(designs.size());
+        final List<JRCompilationUnit> units = new ArrayList<>();
+        for (final JasperDesign design : designs) {
+            final ReportUnits report = createReportUnits(design);
+            reports.add(report);
+            units.addAll(report.units);
+        }
+        final String classpath = JRPropertiesUtil.getInstance(jasperReportsContext).getProperty(JRCompiler.COMPILER_CLASSPATH);
+        final String problems = compileUnits(units.toArray(new JRCompilationUnit[units.size()]), classpath, null);
+        if (problems != null) {
+            throw new JRException("Errors were encountered when compiling report expressions class file:\n" + problems);
+        }
+        final List<JasperReport> compiledReports = new ArrayList<>(reports.size());
+        for (final ReportUnits report : reports) {
+            compiledReports.add(report.toJasperReport(getCompilerClass()));
+        }
+        return compiledReports;
+    }
+
+    /**
+     * Creates the compilation units of a report the way {@link #compileReport(JasperDesign)} does: one for the main dataset,
+     * one for each sub dataset and one for each crosstab.
+     */
+    private ReportUnits createReportUnits(final JasperDesign design) throws JRException {
+        checkLanguage(design.getLanguage());
+        final JRExpressionCollector expressionCollector = JRExpressionCollector.collector(jasperReportsContext, design);
+        final Collection<JRValidationFault> brokenRules = JRVerifier.verifyDesign(jasperReportsContext, design, expressionCollector);
+        if (brokenRules != null && !brokenRules.isEmpty()) {
+            throw new JRValidationException(brokenRules);
+        }
+        final String nameSuffix = "_" + System.currentTimeMillis() + "_" + NAME_SUFFIX_RANDOM.nextInt(1000000);
+        final ReportUnits report = new ReportUnits(design, expressionCollector, nameSuffix);
+        report.units.add(createUnit(design, design.getMainDesignDataset(), expressionCollector, nameSuffix));
+        for (final JRDataset dataset : design.getDatasetsList()) {
+            report.units.add(createUnit(design, (JRDesignDataset) dataset, expressionCollector, nameSuffix));
         }
+        for (final JRDesignCrosstab crosstab : getCrosstabs(design)) {
+            final String unitName = getUnitName(design, crosstab, expressionCollector, nameSuffix);
+            final JRSourceCompileTask sourceTask = new JRSourceCompileTask(design, crosstab, expressionCollector, unitName);
+            report.units.add(new JRCompilationUnit(unitName, generateSourceCode(sourceTask), null, expressionCollector
+                    .getExpressions(crosstab), sourceTask));
+            report.crosstabs.add(crosstab);
+        }
+        return report;
+    }
+
+    private JRCompilationUnit createUnit(final JasperDesign design, final JRDesignDataset dataset,
+            final JRExpressionCollector expressionCollector, final String nameSuffix) throws JRException {
+        final String unitName = getUnitName(design, dataset, nameSuffix);
+        final JRSourceCompileTask sourceTask = new JRSourceCompileTask(design, dataset, expressionCollector, unitName);
+        return new JRCompilationUnit(unitName, generateSourceCode(sourceTask), null, expressionCollector.getExpressions(dataset),
+                sourceTask);
+    }
+
+    private static List<JRDesignCrosstab> getCrosstabs(final JasperDesign design) {
+        final List<JRDesignCrosstab> crosstabs = new ArrayList<>();
+        JRElementsVisitor.visitReport(design, new JRVisitorSupport() {
+
+            @Override
+            public void visitCrosstab(final JRCrosstab crosstab) {
+                crosstabs.add((JRDesignCrosstab) crosstab);
+            }
+        });
+        return crosstabs;
     }
 
     @Override
-    protected String compileUnits(final JRCompilationUnit[] units, String classpath, File tempDirFile) {
+    protected String compileUnits(final JRCompilationUnit[] allUnits, String classpath, File tempDirFile) {
+        final List<JRCompilationUnit> compiledUnits = new ArrayList<>(allUnits.length);
+        for (final JRCompilationUnit unit : allUnits) {
+            final Serializable interpreted = isInterpreted(unit.getCompileTask().getJasperDesign()) ? ExpressionInterpreter
+                    .interpret(unit) : null;
+            if (interpreted != null) {
+                unit.setCompileData(interpreted);
+            } else {
+                compiledUnits.add(unit);
+            }
+        }
+        if (compiledUnits.isEmpty()) {
+            return null;
+        }
+        if (compiledUnits.size() < allUnits.length && log.isDebugEnabled()) {
+            log.debug("Compiling expressions that cannot be interpreted for " + compiledUnits.size() + " of " + allUnits.length
+                    + " units");
+        }
+        final JRCompilationUnit[] units = compiledUnits.toArray(new JRCompilationUnit[compiledUnits.size()]);
         final INameEnvironment env = getNameEnvironment(units);
         final IErrorHandlingPolicy policy = DefaultErrorHandlingPolicies.proceedWithAllProblems();
         final Map<String, String> settings = getJdtSettings();
-        final IProblemFactory problemFactory = new DefaultProblemFactory(Locale.getDefault());
+        final IProblemFactory problemFactory = getProblemFactory(Locale.getDefault());
         final CompilerRequestor requestor = getCompilerRequestor(units);
         final Compiler compiler = new Compiler(env, policy, settings, requestor, problemFactory);
         CompilationUnit[] compilationUnits = requestor.processCompilationUnits();
@@ -112,6 +271,14 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
         return requestor.getFormattedProblems();
     }
 
+    private boolean isInterpreted(final JasperDesign design) {
+        String mode = JRPropertiesUtil.getInstance(jasperReportsContext).getProperty(design, EXPRESSIONS_PROPERTY);
+        if (mode == null) {
+            mode = System.getProperty(EXPRESSIONS_PROPERTY);
+        }
+        return EXPRESSIONS_INTERPRETED.equalsIgnoreCase(mode);
+    }
+
     private INameEnvironment getNameEnvironment(final JRCompilationUnit[] units) {
         return new INameEnvironment() {
 
@@ -160,31 +327,17 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
                     if (classIdx >= 0) {
                         ICompilationUnit compilationUnit = new CompilationUnit(
                                 units[classIdx].getSourceCode(), className);
-                        if (is2ArgsConstr) {
-                            return (NameEnvironmentAnswer) constrNameEnvAnsCompUnit2Args
-                                    .newInstance(new Object[] { compilationUnit, null });
-                        }
-                        return (NameEnvironmentAnswer) constrNameEnvAnsCompUnit
-                                .newInstance(new Object[] { compilationUnit });
+                        return (NameEnvironmentAnswer) SOURCE_ANSWER.invoke(compilationUnit);
                     }
-                    String resourceName = className.replace('.', '/') + ".class";
-                    try (InputStream is = getResource(resourceName)) {
-                        if (is != null) {
-                            byte[] classBytes = JRLoader.loadBytes(is);
-                            char[] fileName = className.toCharArray();
-                            ClassFileReader classFileReader = new ClassFileReader(classBytes, fileName, true);
-
-                            if (is2ArgsConstr) {
-                                return (NameEnvironmentAnswer) constrNameEnvAnsBin2Args
-                                        .newInstance(new Object[] { classFileReader, null });
-                            }
-                            return (NameEnvironmentAnswer) constrNameEnvAnsBin.newInstance(new Object[] { classFileReader });
-                        }
+                    ClassFileReader classFileReader = ClassFileCache.getInstance().getClassFile(classLoader, className);
+                    if (classFileReader != null) {
+                        return (NameEnvironmentAnswer) BINARY_ANSWER.invoke(classFileReader);
                     }
                 } catch (IOException | JRException | org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException e) {
                     log.error("Compilation error", e);
-                } catch (InvocationTargetException | IllegalAccessException | InstantiationException
-                        | IllegalArgumentException e) {
+                } catch (Error e) {
+                    throw e;
+                } catch (Throwable e) {
                     throw new JRRuntimeException("Bad environment", e);
                 }
                 return null;
@@ -195,14 +348,7 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
                 if (classIdx >= 0) {
                     return false;
                 }
-                boolean isPackage = true;
-                try (InputStream is = getResource(result.replace('.', '/') + ".class")) {
-                    if (is != null) {
-                        isPackage = (is.read() < 0);
-                    }
-                } catch (IOException ignored) {
-                }
-                return isPackage;
+                return ClassFileCache.getInstance().isPackage(classLoader, result);
             }
 
             @Override
@@ -236,12 +382,56 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
         return new CompilerRequestor(this, units);
     }
 
+    /**
+     * The settings of the default context and of the system properties come from a snapshot, taken again when a
+     * fingerprint of these properties changes (see {@link #invalidateSettings()}). Properties set locally on a {@link SimpleJasperReportsContext} derived from the default
+     * context, as used by the connector, are applied on top of it. Other kinds of context are read on each compilation.
+     */
     private Map<String, String> getJdtSettings() {
         final Map<String, String> settings = new HashMap<>();
         settings.put(CompilerOptions.OPTION_LineNumberAttribute, CompilerOptions.GENERATE);
         settings.put(CompilerOptions.OPTION_SourceFileAttribute, CompilerOptions.GENERATE);
         settings.put(CompilerOptions.OPTION_ReportDeprecation, CompilerOptions.IGNORE);
-        List<JRPropertiesUtil.PropertySuffix> properties = JRPropertiesUtil.getInstance(jasperReportsContext)
+        final DefaultJasperReportsContext defaultContext = DefaultJasperReportsContext.getInstance();
+        if (jasperReportsContext == defaultContext || jasperReportsContext instanceof SimpleJasperReportsContext) {
+            final int fingerprint = getSettingsFingerprint(defaultContext);
+            JdtSettings snapshot = settingsSnapshot;
+            if (snapshot == null || snapshot.fingerprint != fingerprint) {
+                snapshot = new JdtSettings(getContextSettings(defaultContext), getSystemSettings(), fingerprint);
+                settingsSnapshot = snapshot;
+            }
+            settings.putAll(snapshot.contextSettings);
+            if (jasperReportsContext instanceof SimpleJasperReportsContext) {
+                final Map<String, String> localProperties = ((SimpleJasperReportsContext) jasperReportsContext).getPropertiesMap();
+                if (localProperties != null) {
+                    for (Map.Entry<String, String> property : localProperties.entrySet()) {
+                        if (property.getKey().startsWith(JDT_PROPERTIES_PREFIX) && property.getValue() != null
+                                && property.getValue().length() > 0) {
+                            settings.put(property.getKey(), property.getValue());
+                        }
+                    }
+                }
+            }
+            settings.putAll(snapshot.systemSettings);
+        } else {
+            settings.putAll(getContextSettings(jasperReportsContext));
+            settings.putAll(getSystemSettings());
+        }
+        return settings;
+    }
+
+    /**
+     * @return a hash of all the properties of the default context and of the system properties, changing with the JDT
+     *         ones without filtering them or copying their names
+     */
+    private static int getSettingsFingerprint(final DefaultJasperReportsContext defaultContext) {
+        final Map<String, String> contextProperties = defaultContext.getProperties();
+        return 31 * System.getProperties().hashCode() + (contextProperties == null ? 0 : contextProperties.hashCode());
+    }
+
+    private static Map<String, String> getContextSettings(final JasperReportsContext context) {
+        final Map<String, String> settings = new HashMap<>();
+        List<JRPropertiesUtil.PropertySuffix> properties = JRPropertiesUtil.getInstance(context)
                 .getProperties(JDT_PROPERTIES_PREFIX);
         for (JRPropertiesUtil.PropertySuffix property : properties) {
             String propVal = property.getValue();
@@ -249,6 +439,11 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
                 settings.put(property.getKey(), propVal);
             }
         }
+        return settings;
+    }
+
+    private static Map<String, String> getSystemSettings() {
+        final Map<String, String> settings = new HashMap<>();
         Properties systemProps = System.getProperties();
         for (String propName : systemProps.stringPropertyNames()) {
             if (propName.startsWith(JDT_PROPERTIES_PREFIX)) {
@@ -258,10 +453,24 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
                 }
             }
         }
-
         return settings;
     }
 
+    /**
+     * The problem factory only reads its message templates once created, so one instance is shared for each locale.
+     */
+    private static IProblemFactory getProblemFactory(final Locale locale) {
+        IProblemFactory problemFactory = PROBLEM_FACTORIES.get(locale);
+        if (problemFactory == null) {
+            problemFactory = new DefaultProblemFactory(locale);
+            final IProblemFactory existing = PROBLEM_FACTORIES.putIfAbsent(locale, problemFactory);
+            if (existing != null) {
+                problemFactory = existing;
+            }
+        }
+        return problemFactory;
+    }
+
     private ClassLoader getClassLoader() {
         ClassLoader clsLoader = Thread.currentThread().getContextClassLoader();
 
@@ -279,13 +488,6 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
         return clsLoader;
     }
 
-    private InputStream getResource(String resourceName) {
-        if (classLoader == null) {
-            return JRJdtCompiler.class.getResourceAsStream("/" + resourceName);
-        }
-        return classLoader.getResourceAsStream(resourceName);
-    }
-
     @Override
     protected void checkLanguage(String language) throws JRException {
         if (!JRReport.LANGUAGE_JAVA.equals(language)) {
@@ -303,9 +505,38 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
         return unitName + ".java";
     }
 
+    /**
+     * Compiled reports are filled with this compiler, which creates the evaluators of interpreted units and defines the
+     * evaluator classes of compiled ones through the {@link ReportClassLoaders}.
+     */
     @Override
     protected String getCompilerClass() {
-        return JRJavacCompiler.class.getName();
+        return JRJdtCompiler.class.getName();
+    }
+
+    @Override
+    public JREvaluator loadEvaluator(final JasperReport jasperReport, final JRDataset dataset) throws JRException {
+        final JRReportCompileData compileData = (JRReportCompileData) jasperReport.getCompileData();
+        return loadEvaluator(jasperReport, compileData.getUnitName(jasperReport, dataset), compileData.getDatasetCompileData(dataset));
+    }
+
+    @Override
+    public JREvaluator loadEvaluator(final JasperReport jasperReport, final JRCrosstab crosstab) throws JRException {
+        final JRReportCompileData compileData = (JRReportCompileData) jasperReport.getCompileData();
+        return loadEvaluator(jasperReport, compileData.getUnitName(jasperReport, crosstab), compileData.getCrosstabCompileData(crosstab));
+    }
+
+    private JREvaluator loadEvaluator(final JasperReport jasperReport, final String unitName, final Serializable unitData)
+            throws JRException {
+        if (ExpressionInterpreter.isInterpreted(unitData)) {
+            return ExpressionInterpreter.createEvaluator(unitData);
+        }
+        try {
+            return (JREvaluator) ReportClassLoaders.getInstance().getEvaluatorClass(jasperReport, unitName, (byte[]) unitData,
+                    classLoader).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            throw new JRException("Error loading expression class : " + unitName, e);
+        }
     }
 
     public static class CompilerRequestor implements ICompilerRequestor {
@@ -448,6 +679,57 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler {
         }
     }
 
+    /**
+     * The compilation units of one report of a batch, and what is needed to build the report once they are compiled.
+     */
+    private static final class ReportUnits {
+
+        final JasperDesign design;
+
+        final JRExpressionCollector expressionCollector;
+
+        final String nameSuffix;
+
+        final List<JRCompilationUnit> units = new ArrayList<>();
+
+        final List<JRDesignCrosstab> crosstabs = new ArrayList<>();
+
+        ReportUnits(final JasperDesign design, final JRExpressionCollector expressionCollector, final String nameSuffix) {
+            this.design = design;
+            this.expressionCollector = expressionCollector;
+            this.nameSuffix = nameSuffix;
+        }
+
+        JasperReport toJasperReport(final String compilerClass) {
+            final JRReportCompileData compileData = new JRReportCompileData();
+            compileData.setMainDatasetCompileData(units.get(0).getCompileData());
+            final List<JRDataset> datasets = design.getDatasetsList();
+            for (int i = 0; i < datasets.size(); i++) {
+                compileData.setDatasetCompileData(datasets.get(i), units.get(1 + i).getCompileData());
+            }
+            for (int i = 0; i < crosstabs.size(); i++) {
+                compileData.setCrosstabCompileData(expressionCollector.getCrosstabId(crosstabs.get(i)),
+                        units.get(1 + datasets.size() + i).getCompileData());
+            }
+            return new JasperReport(design, compilerClass, compileData, expressionCollector, nameSuffix);
+        }
+    }
+
+    private static final class JdtSettings {
+
+        final Map<String, String> contextSettings;
+
+        final Map<String, String> systemSettings;
+
+        final int fingerprint;
+
+        JdtSettings(final Map<String, String> contextSettings, final Map<String, String> systemSettings, final int fingerprint) {
+            this.contextSettings = contextSettings;
+            this.systemSettings = systemSettings;
+            this.fingerprint = fingerprint;
+        }
+    }
+
     public static class CompilationUnitResult {
 
         private IProblem[] problems;
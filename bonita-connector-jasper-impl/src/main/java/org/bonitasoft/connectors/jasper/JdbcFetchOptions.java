@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+
+/**
+ * How the report query reads its rows: fetch size, read-only transaction and streaming result set.
+ * <p>
+ * The options are applied through the JasperReports JDBC query executer properties, so that properties set in the report
+ * itself take precedence. In streaming mode the result set is forward-only and read-only; MySQL Connector/J then
+ * streams rows one by one (fetch size {@link Integer#MIN_VALUE}) unless another fetch size is given. A streaming MySQL
+ * connection cannot run other queries, such as sub report queries, until the main query has been read.
+ */
+public class JdbcFetchOptions {
+
+    static final String PROPERTY_JDBC_FETCH_SIZE = "net.sf.jasperreports.jdbc.fetch.size";
+
+    static final String PROPERTY_JDBC_RESULT_SET_TYPE = "net.sf.jasperreports.jdbc.result.set.type";
+
+    static final String PROPERTY_JDBC_CONCURRENCY = "net.sf.jasperreports.jdbc.concurrency";
+
+    static final int DEFAULT_STREAMING_FETCH_SIZE = 1000;
+
+    private final Integer fetchSize;
+
+    private final boolean readOnly;
+
+    private final boolean streaming;
+
+    public JdbcFetchOptions(final Integer fetchSize, final Boolean readOnly, final Boolean streaming) {
+        this.fetchSize = fetchSize;
+        this.readOnly = Boolean.TRUE.equals(readOnly);
+        this.streaming = Boolean.TRUE.equals(streaming);
+    }
+
+    /**
+     * Prepares the connection and the context used to fill the report. The connection is expected to be reset when it is
+     * released.
+     */
+    public void configure(final LocalJasperReportsContext jasperReportsContext, final Connection connection) throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        if (readOnly) {
+            connection.setReadOnly(true);
+        }
+        final String jdbcUrl = streaming && (fetchSize == null || fetchSize == 0) ? connection.getMetaData().getURL() : null;
+        final Integer effectiveFetchSize = getFetchSize(jdbcUrl);
+        if (effectiveFetchSize != null) {
+            jasperReportsContext.setProperty(PROPERTY_JDBC_FETCH_SIZE, String.valueOf(effectiveFetchSize));
+        }
+        if (streaming) {
+            jasperReportsContext.setProperty(PROPERTY_JDBC_RESULT_SET_TYPE, "forwardOnly");
+            jasperReportsContext.setProperty(PROPERTY_JDBC_CONCURRENCY, "readOnly");
+        }
+    }
+
+    Integer getFetchSize(final String jdbcUrl) {
+        if (fetchSize != null && fetchSize != 0) {
+            return fetchSize;
+        }
+        if (!streaming) {
+            return null;
+        }
+        if (isMySql(jdbcUrl)) {
+            return Integer.MIN_VALUE;
+        }
+        return DEFAULT_STREAMING_FETCH_SIZE;
+    }
+
+    private static boolean isMySql(final String jdbcUrl) {
+        return jdbcUrl != null && (jdbcUrl.startsWith("jdbc:mysql:") || jdbcUrl.startsWith("jdbc:mariadb:"));
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+}
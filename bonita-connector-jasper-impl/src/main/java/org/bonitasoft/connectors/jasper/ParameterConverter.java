@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.Set;
+
+/**
+ * Converts the values given in the <code>parameters</code> input of the connector to the class of the report parameters.
+ * <p>
+ * Converters are looked up by the class name of the report parameter. Besides the built-in converters of
+ * {@link ParameterConverters}, converters can be provided as services: a jar on the class path of the process holding a
+ * <code>META-INF/services/org.bonitasoft.connectors.jasper.ParameterConverter</code> file listing its converter classes.
+ * A provided converter replaces the built-in one for the class names it supports. Converters are shared by concurrent
+ * executions and must be thread-safe.
+ */
+public interface ParameterConverter {
+
+    /**
+     * @return the class names of the report parameters this converter creates values for
+     */
+    Set<String> getValueClassNames();
+
+    /**
+     * Converts a value, given as a string or as an object of any class, to the given class. The value is not null.
+     *
+     * @param valueClassName
+     *            one of the class names returned by {@link #getValueClassNames()}
+     * @throws IllegalArgumentException
+     *             or another runtime exception if the value cannot be converted
+     */
+    Object convert(Object value, String valueClassName);
+
+}
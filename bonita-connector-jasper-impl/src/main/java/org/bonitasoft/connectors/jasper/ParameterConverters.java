@@ -0,0 +1,499 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link ParameterConverter}s available to a report.
+ * <p>
+ * Built-in converters handle strings, numbers, booleans, dates and times of <code>java.util</code>, <code>java.sql</code>
+ * and <code>java.time</code>, locales, time zones, collections and plain objects. Dates and times are given either as
+ * dates of another kind, as milliseconds since the epoch, or as text: ISO-8601 such as <code>2012-03-15</code>,
+ * <code>2012-03-15T10:30:00</code> or <code>2012-03-15T10:30:00+01:00</code>, the <code>2012-03-15 10:30:00</code> form of
+ * {@link Timestamp}, or the short date and time of the default locale understood by the previous versions of the
+ * connector. Dates without an offset are in the default time zone of the JVM. Collections are given as a collection, an
+ * array, or a comma separated text.
+ */
+public final class ParameterConverters {
+
+    private static final Logger LOGGER = Logger.getLogger(ParameterConverters.class.getName());
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = new DateTimeFormatterBuilder().append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ').append(DateTimeFormatter.ISO_LOCAL_TIME).toFormatter(Locale.ENGLISH);
+
+    /** The date format of the previous versions of the connector, kept as a last resort. */
+    private static final ThreadLocal<SimpleDateFormat> LEGACY_DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat();
+        }
+    };
+
+    private static final Map<String, ParameterConverter> BUILT_IN;
+
+    static {
+        final Map<String, ParameterConverter> converters = new HashMap<>();
+        for (final ParameterConverter converter : Arrays.asList(new TextConverter(), new NumberConverter(), new BooleanConverter(),
+                new DateConverter(), new LocaleConverter(), new TimeZoneConverter(), new CollectionConverter(), new ObjectConverter())) {
+            for (final String className : converter.getValueClassNames()) {
+                converters.put(className, converter);
+            }
+        }
+        BUILT_IN = Collections.unmodifiableMap(converters);
+    }
+
+    private ParameterConverters() {
+    }
+
+    /**
+     * @return the built-in converters by value class name
+     */
+    public static Map<String, ParameterConverter> getBuiltIn() {
+        return BUILT_IN;
+    }
+
+    /**
+     * @return the built-in converters, replaced by the converters provided as services to the given class loader, by value
+     *         class name
+     */
+    public static Map<String, ParameterConverter> load(final ClassLoader classLoader) {
+        final Map<String, ParameterConverter> converters = new HashMap<>(BUILT_IN);
+        converters.putAll(loadProvided(classLoader));
+        return converters;
+    }
+
+    /**
+     * @return the converters provided as services to the given class loader, by value class name, without the built-in
+     *         ones
+     */
+    public static Map<String, ParameterConverter> loadProvided(final ClassLoader classLoader) {
+        final Map<String, ParameterConverter> converters = new HashMap<>();
+        try {
+            for (final ParameterConverter converter : ServiceLoader.load(ParameterConverter.class, classLoader)) {
+                for (final String className : converter.getValueClassNames()) {
+                    converters.put(className, converter);
+                }
+            }
+        } catch (final ServiceConfigurationError e) {
+            LOGGER.log(Level.WARNING, "Parameter converters cannot be loaded, the built-in ones are used", e);
+        }
+        return converters;
+    }
+
+    private static Set<String> classNames(final Class<?>... classes) {
+        final Set<String> classNames = new HashSet<>();
+        for (final Class<?> type : classes) {
+            classNames.add(type.getName());
+        }
+        return Collections.unmodifiableSet(classNames);
+    }
+
+    private static IllegalArgumentException unsupported(final Object value) {
+        return new IllegalArgumentException("Values of class " + value.getClass().getName() + " are not supported");
+    }
+
+    private static final class TextConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(String.class);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            return value.toString();
+        }
+    }
+
+    private static final class NumberConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(Integer.class, Short.class, Long.class, Byte.class, Double.class,
+                Float.class, BigDecimal.class, BigInteger.class);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            if (value.getClass().getName().equals(valueClassName)) {
+                return value;
+            }
+            if (value instanceof String) {
+                return parse((String) value, valueClassName);
+            }
+            if (!(value instanceof Number)) {
+                throw unsupported(value);
+            }
+            final Number number = (Number) value;
+            if (Double.class.getName().equals(valueClassName)) {
+                return number.doubleValue();
+            }
+            if (Float.class.getName().equals(valueClassName)) {
+                return number.floatValue();
+            }
+            // exact conversions: a fractional or out of range value is rejected rather than truncated
+            final BigDecimal decimal = toBigDecimal(number);
+            if (Integer.class.getName().equals(valueClassName)) {
+                return decimal.intValueExact();
+            }
+            if (Short.class.getName().equals(valueClassName)) {
+                return decimal.shortValueExact();
+            }
+            if (Long.class.getName().equals(valueClassName)) {
+                return decimal.longValueExact();
+            }
+            if (Byte.class.getName().equals(valueClassName)) {
+                return decimal.byteValueExact();
+            }
+            if (BigInteger.class.getName().equals(valueClassName)) {
+                return decimal.toBigIntegerExact();
+            }
+            return decimal;
+        }
+
+        private static Object parse(final String value, final String valueClassName) {
+            if (Integer.class.getName().equals(valueClassName)) {
+                return Integer.parseInt(value);
+            }
+            if (Short.class.getName().equals(valueClassName)) {
+                return Short.parseShort(value);
+            }
+            if (Long.class.getName().equals(valueClassName)) {
+                return Long.parseLong(value);
+            }
+            if (Byte.class.getName().equals(valueClassName)) {
+                return Byte.parseByte(value);
+            }
+            if (Double.class.getName().equals(valueClassName)) {
+                return Double.parseDouble(value);
+            }
+            if (Float.class.getName().equals(valueClassName)) {
+                return Float.parseFloat(value);
+            }
+            if (BigInteger.class.getName().equals(valueClassName)) {
+                return new BigInteger(value);
+            }
+            return new BigDecimal(value);
+        }
+
+        private static BigDecimal toBigDecimal(final Number number) {
+            if (number instanceof BigDecimal) {
+                return (BigDecimal) number;
+            }
+            if (number instanceof BigInteger) {
+                return new BigDecimal((BigInteger) number);
+            }
+            if (number instanceof Float) {
+                return new BigDecimal(number.toString());
+            }
+            if (number instanceof Double) {
+                return BigDecimal.valueOf(number.doubleValue());
+            }
+            return BigDecimal.valueOf(number.longValue());
+        }
+    }
+
+    private static final class BooleanConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(Boolean.class);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            if (value instanceof Boolean) {
+                return value;
+            }
+            if (value instanceof String) {
+                return Boolean.parseBoolean((String) value);
+            }
+            throw unsupported(value);
+        }
+    }
+
+    private static final class DateConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(Date.class, java.sql.Date.class, Time.class, Timestamp.class,
+                LocalDate.class, LocalDateTime.class, LocalTime.class, Instant.class, OffsetDateTime.class, ZonedDateTime.class);
+
+        private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            if (value.getClass().getName().equals(valueClassName) || Date.class.getName().equals(valueClassName) && value instanceof Date) {
+                return value;
+            }
+            final boolean timeOnly = Time.class.getName().equals(valueClassName) || LocalTime.class.getName().equals(valueClassName);
+            final ZonedDateTime dateTime = toZonedDateTime(value, timeOnly);
+            if (Date.class.getName().equals(valueClassName)) {
+                return Date.from(dateTime.toInstant());
+            }
+            if (Timestamp.class.getName().equals(valueClassName)) {
+                return Timestamp.from(dateTime.toInstant());
+            }
+            if (java.sql.Date.class.getName().equals(valueClassName)) {
+                return java.sql.Date.valueOf(dateTime.toLocalDate());
+            }
+            if (Time.class.getName().equals(valueClassName)) {
+                return Time.valueOf(dateTime.toLocalTime());
+            }
+            if (LocalDate.class.getName().equals(valueClassName)) {
+                return dateTime.toLocalDate();
+            }
+            if (LocalDateTime.class.getName().equals(valueClassName)) {
+                return dateTime.toLocalDateTime();
+            }
+            if (LocalTime.class.getName().equals(valueClassName)) {
+                return dateTime.toLocalTime();
+            }
+            if (Instant.class.getName().equals(valueClassName)) {
+                return dateTime.toInstant();
+            }
+            if (OffsetDateTime.class.getName().equals(valueClassName)) {
+                return dateTime.toOffsetDateTime();
+            }
+            return dateTime;
+        }
+
+        private static ZonedDateTime toZonedDateTime(final Object value, final boolean timeOnly) {
+            final ZoneId zone = ZoneId.systemDefault();
+            if (value instanceof String) {
+                return parse((String) value, timeOnly, zone);
+            }
+            if (value instanceof ZonedDateTime) {
+                return (ZonedDateTime) value;
+            }
+            if (value instanceof OffsetDateTime) {
+                return ((OffsetDateTime) value).toZonedDateTime();
+            }
+            if (value instanceof Instant) {
+                return ((Instant) value).atZone(zone);
+            }
+            if (value instanceof LocalDateTime) {
+                return ((LocalDateTime) value).atZone(zone);
+            }
+            if (value instanceof LocalDate) {
+                return ((LocalDate) value).atStartOfDay(zone);
+            }
+            if (value instanceof LocalTime) {
+                return ((LocalTime) value).atDate(EPOCH).atZone(zone);
+            }
+            // java.sql.Date and Time have no instant of their own
+            if (value instanceof java.sql.Date) {
+                return ((java.sql.Date) value).toLocalDate().atStartOfDay(zone);
+            }
+            if (value instanceof Time) {
+                return ((Time) value).toLocalTime().atDate(EPOCH).atZone(zone);
+            }
+            if (value instanceof Date) {
+                return ((Date) value).toInstant().atZone(zone);
+            }
+            if (value instanceof Calendar) {
+                return ((Calendar) value).toInstant().atZone(zone);
+            }
+            if (value instanceof Long || value instanceof Integer) {
+                return Instant.ofEpochMilli(((Number) value).longValue()).atZone(zone);
+            }
+            throw unsupported(value);
+        }
+
+        private static ZonedDateTime parse(final String text, final boolean timeOnly, final ZoneId zone) {
+            if (timeOnly) {
+                try {
+                    return LocalTime.parse(text).atDate(EPOCH).atZone(zone);
+                } catch (final DateTimeParseException e) {
+                    // not a time alone, maybe a date and time
+                }
+            }
+            try {
+                return OffsetDateTime.parse(text).toZonedDateTime();
+            } catch (final DateTimeParseException e) {
+                // no offset
+            }
+            try {
+                return LocalDateTime.parse(text).atZone(zone);
+            } catch (final DateTimeParseException e) {
+                // not ISO-8601
+            }
+            try {
+                return LocalDateTime.parse(text, TIMESTAMP_FORMAT).atZone(zone);
+            } catch (final DateTimeParseException e) {
+                // not a timestamp
+            }
+            try {
+                return LocalDate.parse(text).atStartOfDay(zone);
+            } catch (final DateTimeParseException e) {
+                // no date alone
+            }
+            try {
+                return LEGACY_DATE_FORMAT.get().parse(text).toInstant().atZone(zone);
+            } catch (final ParseException e) {
+                throw new IllegalArgumentException("Unparseable date: " + text, e);
+            }
+        }
+    }
+
+    private static final class LocaleConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(Locale.class);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            if (value instanceof Locale) {
+                return value;
+            }
+            if (!(value instanceof String)) {
+                throw unsupported(value);
+            }
+            final String text = ((String) value).trim();
+            if (text.indexOf('_') < 0) {
+                return Locale.forLanguageTag(text);
+            }
+            // the fr_FR form of Locale.toString()
+            final String[] parts = text.split("_", 3);
+            return new Locale(parts[0], parts[1], parts.length > 2 ? parts[2] : "");
+        }
+    }
+
+    private static final class TimeZoneConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(TimeZone.class);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            if (value instanceof TimeZone) {
+                return value;
+            }
+            if (value instanceof ZoneId) {
+                return TimeZone.getTimeZone((ZoneId) value);
+            }
+            if (value instanceof String) {
+                // ZoneId rejects unknown zones, which TimeZone silently turns into GMT
+                return TimeZone.getTimeZone(ZoneId.of(((String) value).trim()));
+            }
+            throw unsupported(value);
+        }
+    }
+
+    private static final class CollectionConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(Collection.class, List.class, Set.class);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            final Collection<?> elements;
+            if (value instanceof Collection) {
+                elements = (Collection<?>) value;
+            } else if (value instanceof Object[]) {
+                elements = Arrays.asList((Object[]) value);
+            } else if (value instanceof String) {
+                final List<String> texts = new ArrayList<>();
+                for (final String text : ((String) value).split(",")) {
+                    if (!text.trim().isEmpty()) {
+                        texts.add(text.trim());
+                    }
+                }
+                elements = texts;
+            } else {
+                elements = Collections.singletonList(value);
+            }
+            if (Set.class.getName().equals(valueClassName)) {
+                return elements instanceof Set ? elements : new LinkedHashSet<Object>(elements);
+            }
+            if (List.class.getName().equals(valueClassName)) {
+                return elements instanceof List ? elements : new ArrayList<Object>(elements);
+            }
+            return elements;
+        }
+    }
+
+    private static final class ObjectConverter implements ParameterConverter {
+
+        private static final Set<String> CLASS_NAMES = classNames(Object.class);
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return CLASS_NAMES;
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperReport;
+
+/**
+ * How the parameter values given to the connector become the parameters of a compiled report.
+ * <p>
+ * The plan is computed once per compiled report and kept as long as the report: the built-in converter of each
+ * parameter is looked up by its class name when the plan is created. As a compiled report is shared by every process
+ * using the same template, the converters provided as services are looked up on each conversion among those of the
+ * context class loader (see {@link ParameterConverters#loadProvided(ClassLoader)}) and replace the built-in ones; the plan
+ * holds none of them, so that it does not keep the class loader of a process. Converting the values of an execution
+ * then only goes through the values given, whatever the number of parameters, built-in ones included, the report
+ * declares. Values already of the class of their parameter are kept as they are.
+ */
+public final class ParameterPlan {
+
+    private static final Logger LOGGER = Logger.getLogger(ParameterPlan.class.getName());
+
+    private static final Map<JasperReport, ParameterPlan> PLANS = new WeakHashMap<>();
+
+    private final Map<String, PlannedParameter> parameters = new HashMap<>();
+
+    ParameterPlan(final JasperReport report) {
+        final Map<String, ParameterConverter> converters = ParameterConverters.getBuiltIn();
+        for (final JRParameter parameter : report.getParameters()) {
+            if (parameter.getValueClassName() != null) {
+                parameters.put(parameter.getName(), new PlannedParameter(parameter, converters.get(parameter.getValueClassName())));
+            }
+        }
+    }
+
+    /**
+     * @return the plan of the given report, created on first use
+     */
+    public static ParameterPlan of(final JasperReport report) {
+        synchronized (PLANS) {
+            ParameterPlan plan = PLANS.get(report);
+            if (plan == null) {
+                plan = new ParameterPlan(report);
+                PLANS.put(report, plan);
+            }
+            return plan;
+        }
+    }
+
+    /**
+     * Converts the values with the converters of the context class loader. Values of unknown parameters, null values, and
+     * values of a class that has no converter and is not the class of the parameter are left out.
+     *
+     * @param values
+     *            values by parameter name, as text or as objects of any class
+     * @return a new modifiable map of the values of the report parameters
+     * @throws IllegalArgumentException
+     *             if a value cannot be converted to the class of its parameter
+     */
+    public Map<String, Object> convert(final Map<String, ?> values) {
+        final Map<String, Object> typedParameters = new HashMap<String, Object>();
+        if (values.isEmpty()) {
+            return typedParameters;
+        }
+        final Map<String, ParameterConverter> provided = ParameterConverters.loadProvided(Thread.currentThread()
+                .getContextClassLoader());
+        for (final Map.Entry<String, ?> value : values.entrySet()) {
+            final PlannedParameter parameter = parameters.get(value.getKey());
+            if (parameter != null && value.getValue() != null) {
+                final Object typedValue = parameter.convert(value.getValue(), provided);
+                if (typedValue != null) {
+                    typedParameters.put(value.getKey(), typedValue);
+                }
+            }
+        }
+        return typedParameters;
+    }
+
+    /**
+     * @return the number of parameters, built-in ones included, the report declares
+     */
+    public int size() {
+        return parameters.size();
+    }
+
+    private static final class PlannedParameter {
+
+        private final JRParameter parameter;
+
+        private final ParameterConverter builtInConverter;
+
+        PlannedParameter(final JRParameter parameter, final ParameterConverter builtInConverter) {
+            this.parameter = parameter;
+            this.builtInConverter = builtInConverter;
+        }
+
+        Object convert(final Object value, final Map<String, ParameterConverter> provided) {
+            final String valueClassName = parameter.getValueClassName();
+            final ParameterConverter providedConverter = provided.get(valueClassName);
+            final ParameterConverter converter = providedConverter != null ? providedConverter : builtInConverter;
+            if (converter == null) {
+                if (isInstance(value)) {
+                    return value;
+                }
+                LOGGER.warning("No converter to " + valueClassName + " for parameter " + parameter.getName() + ", the value is ignored");
+                return null;
+            }
+            try {
+                return converter.convert(value, valueClassName);
+            } catch (final RuntimeException e) {
+                throw new IllegalArgumentException("Invalid parameter type for " + parameter.getName() + ": " + valueClassName
+                        + " value is expected, current is " + value, e);
+            }
+        }
+
+        private boolean isInstance(final Object value) {
+            if (value.getClass().getName().equals(parameter.getValueClassName())) {
+                return true;
+            }
+            try {
+                return parameter.getValueClass().isInstance(value);
+            } catch (final RuntimeException e) {
+                // the class of the parameter cannot be loaded
+                return false;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRClassLoader;
+
+/**
+ * JVM-wide registry of the class loaders defining the expression evaluator classes of compiled reports.
+ * <p>
+ * JasperReports defines each evaluator class in a class loader of its own, kept in a cache that is only cleared under heap
+ * pressure, so that metaspace keeps growing with the reports filled. Here the evaluator classes of a report are defined
+ * once, in a single class loader for the report and the class loader it is filled from, and shared by all its fills. The
+ * registry only holds reports weakly: once a report is evicted from the {@link CompiledReportCache} and no longer filled,
+ * its class loader and classes become unreachable and are unloaded by the garbage collector. The class loaders reports
+ * are filled from are held weakly too, and only weakly reached from the report class loaders delegating to them, so that
+ * the class loader of an undeployed process is released even while its reports stay cached.
+ */
+public class ReportClassLoaders {
+
+    private static final ReportClassLoaders INSTANCE = new ReportClassLoaders();
+
+    /** Class loaders by report compile data, which lives as long as the report, and by parent class loader. */
+    private final Map<Object, Map<ClassLoader, ReportClassLoader>> loaders = new WeakHashMap<>();
+
+    private final AtomicLong definedClassCount = new AtomicLong();
+
+    public static ReportClassLoaders getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the evaluator class of the given report, defined on first use
+     */
+    public Class<?> getEvaluatorClass(final JasperReport report, final String className, final byte[] classBytes,
+            final ClassLoader parent) {
+        ReportClassLoader loader;
+        synchronized (loaders) {
+            Map<ClassLoader, ReportClassLoader> reportLoaders = loaders.get(report.getCompileData());
+            if (reportLoaders == null) {
+                reportLoaders = new WeakHashMap<>(2);
+                loaders.put(report.getCompileData(), reportLoaders);
+            }
+            loader = reportLoaders.get(parent);
+            if (loader == null) {
+                loader = new ReportClassLoader(parent);
+                reportLoaders.put(parent, loader);
+            }
+        }
+        return loader.define(className, classBytes);
+    }
+
+    /**
+     * @return the number of reports whose class loaders are still reachable
+     */
+    public int size() {
+        synchronized (loaders) {
+            return loaders.size();
+        }
+    }
+
+    public long getDefinedClassCount() {
+        return definedClassCount.get();
+    }
+
+    /**
+     * Delegates to its parent through a weak reference, as a class loader holding its parent would keep the key of its
+     * entry reachable.
+     */
+    private final class ReportClassLoader extends JRClassLoader {
+
+        private final WeakReference<ClassLoader> parentReference;
+
+        ReportClassLoader(final ClassLoader parent) {
+            super(null);
+            parentReference = parent == null ? null : new WeakReference<>(parent);
+        }
+
+        private ClassLoader getParentLoader() throws ClassNotFoundException {
+            final ClassLoader parent = parentReference.get();
+            if (parent == null) {
+                throw new ClassNotFoundException("The class loader the report was filled from is released");
+            }
+            return parent;
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (parentReference == null) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loadedClass = findLoadedClass(name);
+                if (loadedClass == null) {
+                    loadedClass = getParentLoader().loadClass(name);
+                }
+                if (resolve) {
+                    resolveClass(loadedClass);
+                }
+                return loadedClass;
+            }
+        }
+
+        @Override
+        protected URL findResource(final String name) {
+            final ClassLoader parent = parentReference == null ? null : parentReference.get();
+            return parent == null ? null : parent.getResource(name);
+        }
+
+        @Override
+        protected Enumeration<URL> findResources(final String name) throws IOException {
+            final ClassLoader parent = parentReference == null ? null : parentReference.get();
+            return parent == null ? Collections.<URL> emptyEnumeration() : parent.getResources(name);
+        }
+
+        synchronized Class<?> define(final String className, final byte[] classBytes) {
+            Class<?> evaluatorClass = findLoadedClass(className);
+            if (evaluatorClass == null) {
+                evaluatorClass = loadClass(className, classBytes);
+                definedClassCount.incrementAndGet();
+            }
+            return evaluatorClass;
+        }
+    }
+
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+/**
+ * Turns report documents into {@link JasperReport}s: JRXML sources are compiled with {@link JRJdtCompiler}, serialized
+ * <code>.jasper</code> documents are loaded as is.
+ */
+public class ReportCompiler {
+
+    public static final String JRXML_EXTENSION = ".jrxml";
+
+    public static final String JASPER_EXTENSION = ".jasper";
+
+    private static final Logger LOGGER = Logger.getLogger(ReportCompiler.class.getName());
+
+    private ReportCompiler() {
+    }
+
+    /**
+     * @return true if the file name designates a report that was compiled beforehand
+     */
+    public static boolean isPrecompiled(final String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(JASPER_EXTENSION);
+    }
+
+    /**
+     * Compiles a JRXML source, reusing the report saved in the {@link CompiledReportStore} when one is configured.
+     */
+    public static JasperReport compile(final byte[] jrxmlContent) throws JRException {
+        final CompiledReportStore store = CompiledReportStore.getInstance();
+        if (store == null) {
+            return compileSource(jrxmlContent);
+        }
+        final String key = CompiledReportCache.key(jrxmlContent);
+        JasperReport report = store.load(key);
+        if (report == null) {
+            report = compileSource(jrxmlContent);
+            store.save(key, report);
+        }
+        return report;
+    }
+
+    /**
+     * Compiles several JRXML sources, such as a master report and its subreports, in a single JDT compilation. Reports
+     * saved in the {@link CompiledReportStore} are reused and only the other ones are compiled.
+     *
+     * @return the compiled reports, in the order of the sources
+     */
+    public static List<JasperReport> compileAll(final List<byte[]> jrxmlContents) throws JRException {
+        final CompiledReportStore store = CompiledReportStore.getInstance();
+        final JasperReport[] reports = new JasperReport[jrxmlContents.size()];
+        final List<Integer> toCompile = new ArrayList<>();
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = store == null ? null : store.load(CompiledReportCache.key(jrxmlContents.get(i)));
+            if (reports[i] == null) {
+                toCompile.add(i);
+            }
+        }
+        if (!toCompile.isEmpty()) {
+            final List<byte[]> sources = new ArrayList<>(toCompile.size());
+            for (final Integer index : toCompile) {
+                sources.add(jrxmlContents.get(index));
+            }
+            final List<JasperReport> compiled = compileSources(sources);
+            for (int i = 0; i < compiled.size(); i++) {
+                final int index = toCompile.get(i);
+                reports[index] = compiled.get(i);
+                if (store != null) {
+                    store.save(CompiledReportCache.key(jrxmlContents.get(index)), reports[index]);
+                }
+            }
+        }
+        return Arrays.asList(reports);
+    }
+
+    /**
+     * Returns the report cached in the {@link CompiledReportCache}, compiling or loading it first if needed.
+     *
+     * @param precompiled
+     *            true if the content is a serialized <code>.jasper</code> report, false if it is a JRXML source
+     */
+    public static JasperReport getOrCompile(final byte[] content, final boolean precompiled) throws JRException {
+        return CompiledReportCache.getInstance().getOrCompile(CompiledReportCache.key(content),
+                precompiled ? new LoadReport(content) : new CompileReport(content));
+    }
+
+    /**
+     * Returns the reports cached in the {@link CompiledReportCache}, such as a master report and its subreports. The JRXML
+     * sources missing from the cache are compiled together, in a single JDT compilation, by the first of them looked up.
+     * Each report goes through {@link CompiledReportCache#getOrCompile}, so that concurrent lookups of the same report wait
+     * for a single compilation.
+     *
+     * @param precompiled
+     *            for each content, true if it is a serialized <code>.jasper</code> report, false if it is a JRXML source
+     * @return the reports, in the order of the contents
+     */
+    public static List<JasperReport> getOrCompileAll(final List<byte[]> contents, final List<Boolean> precompiled) throws JRException {
+        final CompiledReportCache cache = CompiledReportCache.getInstance();
+        final List<String> keys = new ArrayList<>(contents.size());
+        final List<byte[]> missingSources = new ArrayList<>();
+        for (int i = 0; i < contents.size(); i++) {
+            keys.add(CompiledReportCache.key(contents.get(i)));
+            if (!precompiled.get(i) && cache.get(keys.get(i)) == null) {
+                missingSources.add(contents.get(i));
+            }
+        }
+        final SourceBatch batch = new SourceBatch(missingSources);
+        final List<JasperReport> reports = new ArrayList<>(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            final byte[] content = contents.get(i);
+            reports.add(cache.getOrCompile(keys.get(i), precompiled.get(i) ? new LoadReport(content) : batch.compilation(content)));
+        }
+        return reports;
+    }
+
+    static List<JasperReport> compileSources(final List<byte[]> jrxmlContents) throws JRException {
+        final List<JasperDesign> designs = new ArrayList<>(jrxmlContents.size());
+        for (final byte[] jrxmlContent : jrxmlContents) {
+            designs.add(JRXmlLoader.load(new ByteArrayInputStream(jrxmlContent)));
+        }
+        try {
+            return getCompiler().compileReports(designs);
+        } catch (final Exception e) {
+            LOGGER.warning("Unable to compile reports with custom compiler, using jasper defaults");
+            LOGGER.log(Level.FINEST, "cause of the failed compilation: ", e);
+        }
+        final List<JasperReport> reports = new ArrayList<>(designs.size());
+        for (final JasperDesign design : designs) {
+            reports.add(JasperCompileManager.compileReport(design));
+        }
+        return reports;
+    }
+
+    /**
+     * Compiles a JRXML source, falling back to the default JasperReports compiler if the JDT one fails.
+     */
+    static JasperReport compileSource(final byte[] jrxmlContent) throws JRException {
+        try {
+            final JasperDesign design = JRXmlLoader.load(new ByteArrayInputStream(jrxmlContent));
+            return getCompiler().compileReport(design);
+        } catch (final Exception e) {
+            LOGGER.warning("Unable to compile report with custom compiler, using jasper defaults");
+            LOGGER.log(Level.FINEST, "cause of the failed compilation: ", e);
+        }
+        return JasperCompileManager.compileReport(new ByteArrayInputStream(jrxmlContent));
+    }
+
+    /**
+     * Loads a report serialized with {@link net.sf.jasperreports.engine.util.JRSaver}, for example by
+     * {@link ReportPrecompiler}. The document must have been compiled with the JasperReports version used by the
+     * connector.
+     */
+    public static JasperReport load(final byte[] jasperContent) throws JRException {
+        final Object report = JRLoader.loadObject(new ByteArrayInputStream(jasperContent));
+        if (!(report instanceof JasperReport)) {
+            throw new JRException("The document does not contain a compiled report but a " + report.getClass().getName());
+        }
+        return (JasperReport) report;
+    }
+
+    private static final class LoadReport implements CompiledReportCache.ReportCompilation {
+
+        private final byte[] content;
+
+        LoadReport(final byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public JasperReport compile() throws JRException {
+            return load(content);
+        }
+    }
+
+    private static final class CompileReport implements CompiledReportCache.ReportCompilation {
+
+        private final byte[] content;
+
+        CompileReport(final byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public JasperReport compile() throws JRException {
+            return ReportCompiler.compile(content);
+        }
+    }
+
+    /**
+     * JRXML sources compiled together the first time one of them is needed.
+     */
+    private static final class SourceBatch {
+
+        private final List<byte[]> sources;
+
+        private List<JasperReport> compiled;
+
+        SourceBatch(final List<byte[]> sources) {
+            this.sources = sources;
+        }
+
+        CompiledReportCache.ReportCompilation compilation(final byte[] content) {
+            return new CompiledReportCache.ReportCompilation() {
+
+                @Override
+                public JasperReport compile() throws JRException {
+                    return SourceBatch.this.compile(content);
+                }
+            };
+        }
+
+        synchronized JasperReport compile(final byte[] content) throws JRException {
+            int index = -1;
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i) == content) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                // cached when the batch was made, evicted since
+                return ReportCompiler.compile(content);
+            }
+            if (compiled == null) {
+                compiled = compileAll(sources);
+            }
+            return compiled.get(index);
+        }
+    }
+
+    /**
+     * @return a new compiler for the current thread: the compiler and its context are not shared with other compilations
+     */
+    static JRJdtCompiler getCompiler() {
+        final LocalJasperReportsContext jasperReportsContext = new LocalJasperReportsContext(
+                DefaultJasperReportsContext.getInstance());
+        jasperReportsContext.setClassLoader(Thread.currentThread().getContextClassLoader());
+        return new JRJdtCompiler(jasperReportsContext);
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM-wide executor of the exports of a filled report to several formats, so that the formats are exported at the same
+ * time from the same print instead of one after the other.
+ * <p>
+ * The exports run on at most {@link #THREADS_PROPERTY} shared threads, with the context class loader of the calling
+ * thread, while the calling thread waits for them within the timeout. Exports waiting for a thread are queued: an export
+ * never waits for another, so the queue cannot deadlock. As soon as an export fails or the timeout is reached, the exports
+ * still running are interrupted.
+ */
+public class ReportExportExecutor {
+
+    /** System property holding the number of exports run at a time on the shared threads. */
+    public static final String THREADS_PROPERTY = "org.bonitasoft.connectors.jasper.export.threads";
+
+    private static final ReportExportExecutor INSTANCE = new ReportExportExecutor(Integer.getInteger(THREADS_PROPERTY, Runtime
+            .getRuntime().availableProcessors()));
+
+    private final ThreadPoolExecutor executor;
+
+    public ReportExportExecutor(final int threads) {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "jasper-report-export-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ReportExportExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs the exports and waits for all of them.
+     *
+     * @param timeoutNanos
+     *            time the exports may take, {@link Long#MAX_VALUE} for no limit
+     * @return the results of the exports, in the order of the exports
+     * @throws TimeoutException
+     *             if the exports did not finish in time
+     * @throws Exception
+     *             the failure of the first export failing
+     */
+    public <T> List<T> exportAll(final List<Callable<T>> exports, final long timeoutNanos) throws Exception {
+        final long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        // index of each export, by the future of its result
+        final Map<Future<T>, Integer> futures = new IdentityHashMap<>();
+        try {
+            for (final Callable<T> export : exports) {
+                futures.put(completion.submit(new Callable<T>() {
+
+                    @Override
+                    public T call() throws Exception {
+                        final Thread thread = Thread.currentThread();
+                        final ClassLoader previous = thread.getContextClassLoader();
+                        thread.setContextClassLoader(classLoader);
+                        try {
+                            return export.call();
+                        } finally {
+                            thread.setContextClassLoader(previous);
+                        }
+                    }
+                }), futures.size());
+            }
+            final List<T> results = new ArrayList<>(Collections.<T> nCopies(exports.size(), null));
+            // the exports are collected as they finish, so that the first one failing is reported right away
+            for (int i = 0; i < results.size(); i++) {
+                final Future<T> future = deadline == Long.MAX_VALUE ? completion.take() : completion.poll(Math.max(deadline
+                        - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    throw new TimeoutException("The report was not exported within " + TimeUnit.NANOSECONDS.toSeconds(timeoutNanos)
+                            + " seconds");
+                }
+                try {
+                    results.set(futures.get(future), future.get());
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw (Exception) e.getCause();
+                }
+            }
+            return results;
+        } finally {
+            // the exports still running once one has failed are no longer needed
+            for (final Future<T> future : futures.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return the number of exports waiting for a thread
+     */
+    public int getQueueLength() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+}
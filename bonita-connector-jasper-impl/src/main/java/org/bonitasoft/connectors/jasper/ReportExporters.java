@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.OutputStream;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExporter;
+import net.sf.jasperreports.engine.JRExporterParameter;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRDocxExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.util.FileBufferedOutputStream;
+
+/**
+ * Exports a report as CSV, XLSX or DOCX.
+ * <p>
+ * The CSV exporter writes the rows of each page straight to the stream. The XLSX exporter writes the sheets to zip
+ * entries which are kept in memory up to the threshold of {@link ReportOutputStream}, then written to temporary files,
+ * so that large reports are exported in bounded heap. A threshold set by the report itself with the
+ * <code>net.sf.jasperreports.file.buffer.os.memory.threshold</code> property is kept.
+ */
+public class ReportExporters {
+
+    private ReportExporters() {
+    }
+
+    /**
+     * Writes the report as UTF-8 CSV to the given stream, which is left open.
+     */
+    public static void exportCsv(final JasperPrint print, final OutputStream outputStream) throws JRException {
+        final JRCsvExporter exporter = new JRCsvExporter();
+        exporter.setParameter(JRExporterParameter.CHARACTER_ENCODING, "UTF-8");
+        export(exporter, print, outputStream);
+    }
+
+    /**
+     * Writes the report as an XLSX workbook to the given stream, which is left open.
+     */
+    public static void exportXlsx(final JasperPrint print, final OutputStream outputStream) throws JRException {
+        setMemoryThreshold(print);
+        export(new JRXlsxExporter(), print, outputStream);
+    }
+
+    /**
+     * Sets the memory threshold of the zip entries of the XLSX export, unless the report sets its own. Called before a
+     * print is exported concurrently, so that exporting it as XLSX does not change it any more.
+     */
+    public static void setMemoryThreshold(final JasperPrint print) {
+        if (!print.getPropertiesMap().containsProperty(FileBufferedOutputStream.PROPERTY_MEMORY_THRESHOLD)) {
+            print.setProperty(FileBufferedOutputStream.PROPERTY_MEMORY_THRESHOLD,
+                    String.valueOf(Integer.getInteger(ReportOutputStream.MEMORY_THRESHOLD_PROPERTY, 1024 * 1024)));
+        }
+    }
+
+    /**
+     * Writes the report as a DOCX document to the given stream, which is left open.
+     */
+    public static void exportDocx(final JasperPrint print, final OutputStream outputStream) throws JRException {
+        export(new JRDocxExporter(), print, outputStream);
+    }
+
+    private static void export(final JRExporter exporter, final JasperPrint print, final OutputStream outputStream) throws JRException {
+        exporter.setParameter(JRExporterParameter.JASPER_PRINT, print);
+        exporter.setParameter(JRExporterParameter.OUTPUT_STREAM, outputStream);
+        exporter.exportReport();
+    }
+
+}
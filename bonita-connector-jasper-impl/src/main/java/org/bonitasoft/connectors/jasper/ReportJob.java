@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A report generated in the background, see {@link ReportJobExecutor}, and attached to a document of a process instance
+ * once generated.
+ */
+public abstract class ReportJob {
+
+    private final long processInstanceId;
+
+    private final String reportDocument;
+
+    private final long timeoutSeconds;
+
+    private volatile long deadline = Long.MAX_VALUE;
+
+    /**
+     * @param reportDocument
+     *            name of the process instance document the report is attached to
+     * @param timeoutSeconds
+     *            time the job may run for once started, 0 or less for no limit
+     */
+    protected ReportJob(final long processInstanceId, final String reportDocument, final long timeoutSeconds) {
+        this.processInstanceId = processInstanceId;
+        this.reportDocument = reportDocument;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Generates the report and attaches it to its document. Called on a thread of the {@link ReportJobExecutor}, which is
+     * interrupted if the job runs for longer than its timeout.
+     */
+    protected abstract void execute() throws Exception;
+
+    /**
+     * Called by the {@link ReportJobExecutor} right before the job is executed.
+     */
+    void started() {
+        if (timeoutSeconds > 0) {
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        }
+    }
+
+    /**
+     * Called before the job does something that cannot be undone, such as attaching the report, since the job may go on
+     * after its thread was interrupted.
+     *
+     * @throws TimeoutException
+     *             if the job has been running for longer than its timeout
+     */
+    protected void checkDeadline() throws TimeoutException {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            throw new TimeoutException("The " + this + " was not generated within " + timeoutSeconds + " seconds");
+        }
+    }
+
+    public long getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getReportDocument() {
+        return reportDocument;
+    }
+
+    public long getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "report " + reportDocument + " of process instance " + processInstanceId;
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JVM-wide executor of the reports generated in the background, so that a long report does not hold the thread of the
+ * connector.
+ * <p>
+ * At most {@link #THREADS_PROPERTY} reports are generated at a time and at most {@link #QUEUE_SIZE_PROPERTY} wait for a
+ * thread: a job submitted to a full queue is rejected. A job running for longer than its timeout is interrupted and
+ * reported as failed with a {@link TimeoutException}. Jobs run with the context class loader of the thread submitting them.
+ */
+public class ReportJobExecutor {
+
+    /** System property holding the number of reports generated at a time. */
+    public static final String THREADS_PROPERTY = "org.bonitasoft.connectors.jasper.async.threads";
+
+    /** System property holding the number of reports waiting to be generated. */
+    public static final String QUEUE_SIZE_PROPERTY = "org.bonitasoft.connectors.jasper.async.queueSize";
+
+    /** System property holding the timeout in seconds of the jobs that do not have their own, 0 for none. */
+    public static final String TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.async.timeout";
+
+    private static final int DEFAULT_THREADS = 2;
+
+    private static final int DEFAULT_QUEUE_SIZE = 100;
+
+    private static final Logger LOGGER = Logger.getLogger(ReportJobExecutor.class.getName());
+
+    private static final ReportJobExecutor INSTANCE = new ReportJobExecutor(Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS),
+            Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE));
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    public ReportJobExecutor(final int threads, final int queueSize) {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+                new DaemonThreadFactory("jasper-report-job-"));
+        executor.allowCoreThreadTimeOut(true);
+        timer = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("jasper-report-job-timer-"));
+        timer.setRemoveOnCancelPolicy(true);
+        timer.setKeepAliveTime(60, TimeUnit.SECONDS);
+        timer.allowCoreThreadTimeOut(true);
+    }
+
+    public static ReportJobExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the timeout of the jobs that do not have their own, in seconds, 0 for none
+     */
+    public static long getDefaultTimeoutSeconds() {
+        return Long.getLong(TIMEOUT_PROPERTY, 0);
+    }
+
+    /**
+     * Queues the job. The given listeners, then the listeners provided as services to the context class loader, are
+     * notified when it completes or fails.
+     *
+     * @throws RejectedExecutionException
+     *             if the queue is full
+     */
+    public Future<?> submit(final ReportJob job, final List<ReportJobListener> listeners) {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final List<ReportJobListener> allListeners = new ArrayList<>(listeners);
+        allListeners.addAll(loadListeners(classLoader));
+        try {
+            return executor.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    final Thread thread = Thread.currentThread();
+                    final ClassLoader previous = thread.getContextClassLoader();
+                    thread.setContextClassLoader(classLoader);
+                    try {
+                        ReportJobExecutor.this.run(job, allListeners);
+                    } finally {
+                        thread.setContextClassLoader(previous);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            throw new RejectedExecutionException("The " + job + " cannot be queued: " + executor.getQueue().size()
+                    + " reports are already waiting to be generated", e);
+        }
+    }
+
+    private void run(final ReportJob job, final List<ReportJobListener> listeners) {
+        final Timeout timeout = job.getTimeoutSeconds() > 0 ? new Timeout(Thread.currentThread()) : null;
+        if (timeout != null) {
+            timeout.schedule(timer, job.getTimeoutSeconds());
+        }
+        Exception failure = null;
+        try {
+            job.started();
+            job.execute();
+        } catch (final Exception e) {
+            failure = e;
+        } finally {
+            // a job ignoring the interrupt may still complete: it checks its deadline before attaching the report
+            if (timeout != null && timeout.finish() && failure != null && !(failure instanceof TimeoutException)) {
+                final TimeoutException timeoutException = new TimeoutException("The " + job + " was not generated within "
+                        + job.getTimeoutSeconds() + " seconds");
+                timeoutException.initCause(failure);
+                failure = timeoutException;
+            }
+        }
+        if (failure != null) {
+            LOGGER.log(Level.WARNING, "The " + job + " failed", failure);
+        }
+        for (final ReportJobListener listener : listeners) {
+            try {
+                if (failure == null) {
+                    listener.completed(job);
+                } else {
+                    listener.failed(job, failure);
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Listener " + listener + " of the " + job + " failed", e);
+            }
+        }
+    }
+
+    private static List<ReportJobListener> loadListeners(final ClassLoader classLoader) {
+        final List<ReportJobListener> listeners = new ArrayList<>();
+        try {
+            for (final ReportJobListener listener : ServiceLoader.load(ReportJobListener.class, classLoader)) {
+                listeners.add(listener);
+            }
+        } catch (final ServiceConfigurationError e) {
+            LOGGER.log(Level.WARNING, "Report job listeners cannot be loaded", e);
+        }
+        return listeners;
+    }
+
+    /**
+     * @return the number of jobs waiting for a thread
+     */
+    public int getQueueLength() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of jobs being run
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getThreads() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Interrupts the thread of a job once its time is up, unless the job is finished.
+     */
+    private static final class Timeout implements Runnable {
+
+        private final Thread worker;
+
+        private ScheduledFuture<?> schedule;
+
+        private boolean finished;
+
+        private boolean expired;
+
+        Timeout(final Thread worker) {
+            this.worker = worker;
+        }
+
+        synchronized void schedule(final ScheduledThreadPoolExecutor timer, final long seconds) {
+            schedule = timer.schedule(this, seconds, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!finished) {
+                expired = true;
+                worker.interrupt();
+            }
+        }
+
+        /**
+         * Called by the worker once the job is finished.
+         *
+         * @return true if the job was interrupted
+         */
+        synchronized boolean finish() {
+            finished = true;
+            schedule.cancel(false);
+            if (expired) {
+                // the thread goes on with the next job
+                Thread.interrupted();
+            }
+            return expired;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        DaemonThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
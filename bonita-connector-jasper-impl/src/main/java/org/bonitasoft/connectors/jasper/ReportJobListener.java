@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+/**
+ * Notified when a {@link ReportJob} completes or fails.
+ * <p>
+ * Besides the listener reporting failures to a process variable, listeners can be provided as services: a jar on the class
+ * path of the process holding a <code>META-INF/services/org.bonitasoft.connectors.jasper.ReportJobListener</code> file
+ * listing its listener classes. Listeners are called on the thread of the job; an exception thrown by a listener is logged
+ * and does not prevent the other listeners from being notified.
+ */
+public interface ReportJobListener {
+
+    /**
+     * The report has been generated and attached to its document.
+     */
+    void completed(ReportJob job);
+
+    /**
+     * The report could not be generated or attached.
+     *
+     * @param cause
+     *            the failure, a {@link java.util.concurrent.TimeoutException} if the job ran for longer than its timeout
+     */
+    void failed(ReportJob job, Exception cause);
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.jasperreports.engine.JRAbstractScriptlet;
+import net.sf.jasperreports.engine.JRDefaultScriptlet;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.scriptlets.ScriptletFactory;
+import net.sf.jasperreports.engine.scriptlets.ScriptletFactoryContext;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+
+/**
+ * Hard limits on the size of a report, so that a single report cannot exhaust the heap of the server: the number of pages
+ * of the report, the number of rows read by the report and its subreports and datasets, and the size of the exported
+ * report.
+ * <p>
+ * Pages and rows are counted by a governor scriptlet added to every dataset filled, the exported bytes by a stream around
+ * the export; the fill or the export stops as soon as a limit is crossed, with a {@link LimitExceededException} naming
+ * it. The limits of the server, set with system properties, are upper bounds: a report can only lower them. A limit of
+ * 0 disables it.
+ */
+public class ReportLimits {
+
+    /** System property holding the maximum number of pages of a report. */
+    public static final String MAX_PAGES_PROPERTY = "org.bonitasoft.connectors.jasper.limits.maxPages";
+
+    /** System property holding the maximum number of rows read by a report. */
+    public static final String MAX_ROWS_PROPERTY = "org.bonitasoft.connectors.jasper.limits.maxRows";
+
+    /** System property holding the maximum size of an exported report, in megabytes. */
+    public static final String MAX_OUTPUT_SIZE_PROPERTY = "org.bonitasoft.connectors.jasper.limits.maxOutputSize";
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final int maxPages;
+
+    private final long maxRows;
+
+    private final long maxBytes;
+
+    /**
+     * @param maxPages
+     *            maximum number of pages, null or 0 for the limit of the server
+     * @param maxRows
+     *            maximum number of rows, null or 0 for the limit of the server
+     * @param maxOutputSize
+     *            maximum size of the exported report in megabytes, null or 0 for the limit of the server
+     */
+    public ReportLimits(final Integer maxPages, final Integer maxRows, final Integer maxOutputSize) {
+        this.maxPages = (int) lowest(maxPages, Integer.getInteger(MAX_PAGES_PROPERTY, 0));
+        this.maxRows = lowest(maxRows, Integer.getInteger(MAX_ROWS_PROPERTY, 0));
+        this.maxBytes = lowest(maxOutputSize, Integer.getInteger(MAX_OUTPUT_SIZE_PROPERTY, 0)) * MEGABYTE;
+    }
+
+    private static long lowest(final Integer limit, final int serverLimit) {
+        if (limit == null || limit <= 0) {
+            return Math.max(serverLimit, 0);
+        }
+        return serverLimit > 0 ? Math.min(limit, serverLimit) : limit;
+    }
+
+    /**
+     * Adds the governor of the pages and rows of a single fill of the given report to the context it is filled with.
+     */
+    public void configure(final LocalJasperReportsContext fillContext, final JasperReport report) {
+        if (maxPages > 0 || maxRows > 0) {
+            fillContext.setExtensions(ScriptletFactory.class, Collections.singletonList(new GovernorFactory(report)));
+        }
+    }
+
+    /**
+     * @return a stream failing once more than the maximum size is written to it, or the given stream if the size is not
+     *         limited. Closing it closes the given stream.
+     */
+    public OutputStream limitSize(final OutputStream outputStream) {
+        if (maxBytes <= 0) {
+            return outputStream;
+        }
+        return new FilterOutputStream(outputStream) {
+
+            private long count;
+
+            @Override
+            public void write(final int b) throws IOException {
+                count(1);
+                out.write(b);
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+                count(length);
+                out.write(bytes, offset, length);
+            }
+
+            private void count(final int length) {
+                count += length;
+                if (count > maxBytes) {
+                    throw new LimitExceededException("The exported report is larger than the limit of " + maxBytes / MEGABYTE + " MB");
+                }
+            }
+        };
+    }
+
+    /**
+     * @param rows
+     *            number of rows read so far
+     * @throws LimitExceededException if more rows than the maximum are read
+     */
+    public void checkRows(final long rows) {
+        if (maxRows > 0 && rows > maxRows) {
+            throw new LimitExceededException("The report reads more than the limit of " + maxRows + " rows");
+        }
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * A limit of the report was crossed. Thrown as is through the fill and the export, which do not wrap runtime
+     * exceptions.
+     */
+    public static class LimitExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public LimitExceededException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Creates the governor scriptlet of every dataset of one fill, sharing the row count.
+     */
+    private final class GovernorFactory implements ScriptletFactory {
+
+        private final JasperReport report;
+
+        private long rows;
+
+        GovernorFactory(final JasperReport report) {
+            this.report = report;
+        }
+
+        @Override
+        public List<JRAbstractScriptlet> getScriplets(final ScriptletFactoryContext context) {
+            // only the main dataset of the report itself lays out the pages of the report
+            final boolean countsPages = context.getJasperReport() == report && context.getDataset().isMainDataset();
+            return Collections.<JRAbstractScriptlet> singletonList(new Governor(countsPages));
+        }
+
+        private final class Governor extends JRDefaultScriptlet {
+
+            private final boolean countsPages;
+
+            private int pages;
+
+            Governor(final boolean countsPages) {
+                this.countsPages = countsPages;
+            }
+
+            @Override
+            public void afterPageInit() {
+                if (countsPages && maxPages > 0 && ++pages > maxPages) {
+                    throw new LimitExceededException("The report has more than the limit of " + maxPages + " pages");
+                }
+            }
+
+            @Override
+            public void afterDetailEval() {
+                // subreports may be filled on threads of their own
+                synchronized (GovernorFactory.this) {
+                    checkRows(++rows);
+                }
+            }
+        }
+    }
+
+}
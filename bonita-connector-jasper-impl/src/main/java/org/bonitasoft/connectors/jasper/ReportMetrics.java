@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exposes the reports being filled, waiting for admission, generated asynchronously and exported, as the attributes of
+ * the {@link #OBJECT_NAME} MBean of the platform MBean server.
+ * <p>
+ * A single MBean is registered per JVM: registering it again, as a redeployed connector does, replaces the previous one
+ * so that the MBean server does not keep the class loader of the previous connector.
+ */
+public class ReportMetrics implements ReportMetricsMBean {
+
+    /** Name of the MBean in the platform MBean server. */
+    public static final String OBJECT_NAME = "org.bonitasoft.connectors.jasper:type=ReportMetrics";
+
+    private static final Logger LOGGER = Logger.getLogger(ReportMetrics.class.getName());
+
+    /**
+     * Registers the MBean in the platform MBean server, replacing any previous one. A failure is logged and does not
+     * prevent reports from being generated.
+     */
+    public static synchronized void register() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new ReportMetrics(), name);
+        } catch (final JMException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to register the report metrics as " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public int getActiveFills() {
+        return FillAdmission.getInstance().getActiveCount();
+    }
+
+    @Override
+    public int getWaitingFills() {
+        return FillAdmission.getInstance().getQueueLength();
+    }
+
+    @Override
+    public int getAvailableMemory() {
+        return FillAdmission.getInstance().getAvailableMemory();
+    }
+
+    @Override
+    public int getActiveJobs() {
+        return ReportJobExecutor.getInstance().getActiveCount();
+    }
+
+    @Override
+    public int getQueuedJobs() {
+        return ReportJobExecutor.getInstance().getQueueLength();
+    }
+
+    @Override
+    public int getActiveExports() {
+        return ReportExportExecutor.getInstance().getActiveCount();
+    }
+
+    @Override
+    public int getQueuedExports() {
+        return ReportExportExecutor.getInstance().getQueueLength();
+    }
+
+}
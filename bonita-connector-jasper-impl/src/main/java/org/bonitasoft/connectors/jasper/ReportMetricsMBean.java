@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+/**
+ * Gauges of the reports in progress in the JVM, exposed through JMX by {@link ReportMetrics}.
+ */
+public interface ReportMetricsMBean {
+
+    /**
+     * @return the number of reports admitted by the {@link FillAdmission} and not yet exported
+     */
+    int getActiveFills();
+
+    /**
+     * @return the number of reports waiting to be admitted by the {@link FillAdmission}
+     */
+    int getWaitingFills();
+
+    /**
+     * @return the megabytes of the memory budget not held by a report, or -1 if there is no memory budget
+     */
+    int getAvailableMemory();
+
+    /**
+     * @return the number of asynchronous reports being generated
+     */
+    int getActiveJobs();
+
+    /**
+     * @return the number of asynchronous reports waiting for a thread
+     */
+    int getQueuedJobs();
+
+    /**
+     * @return the number of exports running on the shared export threads
+     */
+    int getActiveExports();
+
+    /**
+     * @return the number of exports waiting for a shared export thread
+     */
+    int getQueuedExports();
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Receives an exported report and gives it back as a single array of exactly the report size.
+ * <p>
+ * Small reports are kept in memory. Once the report is larger than the memory threshold it is written to a temporary file
+ * and only read back, once, into the returned array: producing a report of n bytes then needs about n bytes of heap
+ * instead of the two or three copies made by a growing {@link java.io.ByteArrayOutputStream}. The temporary file is
+ * deleted when the stream is closed.
+ */
+public class ReportOutputStream extends OutputStream {
+
+    static final String MEMORY_THRESHOLD_PROPERTY = "org.bonitasoft.connectors.jasper.output.memoryThreshold";
+
+    private static final int INITIAL_SIZE = 8192;
+
+    private final int memoryThreshold;
+
+    private byte[] buffer;
+
+    private long count;
+
+    private File file;
+
+    private OutputStream fileStream;
+
+    private boolean closed;
+
+    public ReportOutputStream() {
+        this(Integer.getInteger(MEMORY_THRESHOLD_PROPERTY, 1024 * 1024));
+    }
+
+    ReportOutputStream(final int memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+        buffer = new byte[Math.min(INITIAL_SIZE, Math.max(memoryThreshold, 1))];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        reserve(1);
+        if (fileStream != null) {
+            fileStream.write(b);
+        } else {
+            buffer[(int) count] = (byte) b;
+        }
+        count++;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        reserve(length);
+        if (fileStream != null) {
+            fileStream.write(bytes, offset, length);
+        } else {
+            System.arraycopy(bytes, offset, buffer, (int) count, length);
+        }
+        count += length;
+    }
+
+    /**
+     * Makes room for the given number of bytes, in the buffer or else by spilling to the temporary file.
+     */
+    private void reserve(final int length) throws IOException {
+        if (closed) {
+            throw new IOException("The report output is closed");
+        }
+        if (fileStream == null && count + length > memoryThreshold) {
+            spill();
+        }
+        if (fileStream == null && count + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.min(memoryThreshold, Math.max(count + length, buffer.length * 2L)));
+        }
+    }
+
+    private void spill() throws IOException {
+        file = File.createTempFile("jasperReport", ".out");
+        fileStream = new BufferedOutputStream(new FileOutputStream(file));
+        fileStream.write(buffer, 0, (int) count);
+        buffer = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileStream != null) {
+            fileStream.flush();
+        }
+    }
+
+    /**
+     * @return the bytes written so far, in an array of their exact size
+     * @throws IOException if the report cannot be read back or is too large for an array
+     */
+    public byte[] toByteArray() throws IOException {
+        if (fileStream == null) {
+            if (count != buffer.length) {
+                // trimmed once, so that the array handed over is not copied again
+                buffer = Arrays.copyOf(buffer, (int) count);
+            }
+            return buffer;
+        }
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IOException("The report is too large: " + count + " bytes");
+        }
+        fileStream.flush();
+        final byte[] content = new byte[(int) count];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(content);
+        }
+        return content;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (fileStream != null) {
+            try {
+                fileStream.close();
+            } finally {
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+/**
+ * Build time utility compiling JRXML sources into <code>.jasper</code> documents with the settings used by the connector,
+ * so that the report compiler never runs on the engine.
+ * <p>
+ * Usage: <code>ReportPrecompiler [-d outputDirectory] (file.jrxml | directory)...</code>. Directories are scanned
+ * recursively. Without output directory, each <code>.jasper</code> file is written next to its source. It can be bound
+ * to the build with the exec-maven-plugin.
+ */
+public class ReportPrecompiler {
+
+    private ReportPrecompiler() {
+    }
+
+    public static void main(final String[] args) throws IOException, JRException {
+        File outputDirectory = null;
+        final List<File> sources = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-d".equals(args[i]) && i + 1 < args.length) {
+                outputDirectory = new File(args[++i]);
+            } else {
+                collectSources(new File(args[i]), sources);
+            }
+        }
+        if (sources.isEmpty()) {
+            System.err.println("Usage: ReportPrecompiler [-d outputDirectory] (file.jrxml | directory)...");
+            System.exit(1);
+        }
+        for (final File source : sources) {
+            final File target = precompile(source, outputDirectory);
+            System.out.println(source.getPath() + " -> " + target.getPath());
+        }
+    }
+
+    /**
+     * Compiles the given JRXML file and saves the result as a <code>.jasper</code> file.
+     *
+     * @param outputDirectory the directory receiving the compiled report, or null to write it next to the source
+     * @return the written file
+     */
+    public static File precompile(final File source, final File outputDirectory) throws IOException, JRException {
+        final JasperReport report = ReportCompiler.compile(Files.readAllBytes(source.toPath()));
+        final File directory = outputDirectory != null ? outputDirectory : source.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        final String name = source.getName();
+        final File target = new File(directory, name.substring(0, name.length() - ReportCompiler.JRXML_EXTENSION.length())
+                + ReportCompiler.JASPER_EXTENSION);
+        JRSaver.saveObject(report, target);
+        return target;
+    }
+
+    private static void collectSources(final File file, final List<File> sources) {
+        if (file.isDirectory()) {
+            final File[] children = file.listFiles();
+            if (children != null) {
+                for (final File child : children) {
+                    collectSources(child, sources);
+                }
+            }
+        } else if (file.getName().toLowerCase().endsWith(ReportCompiler.JRXML_EXTENSION)) {
+            sources.add(file);
+        }
+    }
+
+}
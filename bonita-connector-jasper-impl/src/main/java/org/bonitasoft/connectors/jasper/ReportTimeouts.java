@@ -0,0 +1,281 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fill.JRBaseFiller;
+import net.sf.jasperreports.engine.fill.JRFillInterruptedException;
+import net.sf.jasperreports.engine.fill.JRFiller;
+
+/**
+ * Time limits of the generation of a report: an overall deadline, counted from the creation of the limits, and separate
+ * limits for each query of the report and for the fill.
+ * <p>
+ * Queries are limited through {@link Statement#setQueryTimeout(int)} on the statements created by the report, with the
+ * smallest of the query timeout and the time left. The fill is cancelled as an asynchronous fill handle would: the running
+ * query is cancelled and the filling thread is interrupted, which the filler notices between bands. A report that is not
+ * generated in time fails with a {@link TimeoutException}. A limit of 0 disables it.
+ */
+public class ReportTimeouts {
+
+    /** System property holding the default overall timeout of a report, in seconds. */
+    public static final String TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.timeout";
+
+    /** System property holding the default timeout of each query of a report, in seconds. */
+    public static final String QUERY_TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.queryTimeout";
+
+    /** System property holding the default timeout of the fill of a report, in seconds. */
+    public static final String FILL_TIMEOUT_PROPERTY = "org.bonitasoft.connectors.jasper.fillTimeout";
+
+    private static final Logger LOGGER = Logger.getLogger(ReportTimeouts.class.getName());
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "jasper-report-timeout");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+        TIMER.setKeepAliveTime(60, TimeUnit.SECONDS);
+        TIMER.allowCoreThreadTimeOut(true);
+    }
+
+    private final int timeout;
+
+    private final int queryTimeout;
+
+    private final int fillTimeout;
+
+    private final long start = System.nanoTime();
+
+    /**
+     * Starts the clock of the overall deadline.
+     *
+     * @param timeout
+     *            overall timeout in seconds, null for the default of {@link #TIMEOUT_PROPERTY}
+     * @param queryTimeout
+     *            timeout of each query in seconds, null for the default of {@link #QUERY_TIMEOUT_PROPERTY}
+     * @param fillTimeout
+     *            timeout of the fill in seconds, null for the default of {@link #FILL_TIMEOUT_PROPERTY}
+     */
+    public ReportTimeouts(final Integer timeout, final Integer queryTimeout, final Integer fillTimeout) {
+        this.timeout = timeout != null ? timeout : Integer.getInteger(TIMEOUT_PROPERTY, 0);
+        this.queryTimeout = queryTimeout != null ? queryTimeout : Integer.getInteger(QUERY_TIMEOUT_PROPERTY, 0);
+        this.fillTimeout = fillTimeout != null ? fillTimeout : Integer.getInteger(FILL_TIMEOUT_PROPERTY, 0);
+    }
+
+    /**
+     * @return the nanoseconds left before the overall deadline, {@link Long#MAX_VALUE} if there is none
+     */
+    public long getRemainingNanos() {
+        if (timeout <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.SECONDS.toNanos(timeout) - (System.nanoTime() - start);
+    }
+
+    /**
+     * @param step
+     *            what is about to start, such as "the export"
+     * @throws TimeoutException
+     *             if the overall deadline has passed
+     */
+    public void check(final String step) throws TimeoutException {
+        if (getRemainingNanos() <= 0) {
+            throw new TimeoutException("The report was not generated within " + timeout + " seconds: " + step + " could not start");
+        }
+    }
+
+    /**
+     * @return the timeout to set on a statement created now, in seconds, 0 for none
+     */
+    int getQueryTimeoutSeconds() {
+        final long remaining = getRemainingNanos();
+        long seconds = queryTimeout > 0 ? queryTimeout : Long.MAX_VALUE;
+        if (remaining != Long.MAX_VALUE) {
+            // rounded up, and at least a second since 0 means no timeout
+            seconds = Math.min(seconds, Math.max(1, (remaining + 999999999L) / 1000000000L));
+        }
+        return seconds == Long.MAX_VALUE ? 0 : (int) Math.min(seconds, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return a connection setting the query timeout on the statements it creates, or the given connection if queries are
+     *         not limited. Closing it closes the given connection.
+     */
+    public Connection limitQueries(final Connection connection) {
+        if (connection == null || queryTimeout <= 0 && timeout <= 0) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(ReportTimeouts.class.getClassLoader(), new Class<?>[] { Connection.class },
+                new InvocationHandler() {
+
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                        final Object result;
+                        try {
+                            result = method.invoke(connection, args);
+                        } catch (final InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (result instanceof Statement) {
+                            final int seconds = getQueryTimeoutSeconds();
+                            if (seconds > 0) {
+                                ((Statement) result).setQueryTimeout(seconds);
+                            }
+                        }
+                        return result;
+                    }
+                });
+    }
+
+    /**
+     * Fills the report, cancelling the fill once the fill timeout or the overall deadline is reached.
+     *
+     * @throws TimeoutException
+     *             if the fill or one of its queries did not finish in time
+     */
+    public JasperPrint fill(final JasperReportsContext jasperReportsContext, final JasperReport report, final Map<String, Object> parameters,
+            final Connection connection) throws JRException, TimeoutException {
+        check("the fill");
+        final long remaining = getRemainingNanos();
+        final long fillLimit = fillTimeout > 0 ? TimeUnit.SECONDS.toNanos(fillTimeout) : Long.MAX_VALUE;
+        final JRBaseFiller filler = JRFiller.createFiller(jasperReportsContext, report);
+        final Cancellation cancellation = Math.min(remaining, fillLimit) == Long.MAX_VALUE ? null : new Cancellation(filler,
+                Thread.currentThread());
+        if (cancellation != null) {
+            cancellation.schedule(Math.min(remaining, fillLimit));
+        }
+        try {
+            return filler.fill(parameters, connection);
+        } catch (final JRException | RuntimeException e) {
+            if (cancellation != null && cancellation.finish()) {
+                throw timeout(fillLimit <= remaining ? "The report fill did not finish within " + fillTimeout + " seconds"
+                        : "The report was not generated within " + timeout + " seconds", e);
+            }
+            if (isQueryTimeout(e)) {
+                throw timeout("A query of the report did not finish within " + getQueryTimeoutLabel(), e);
+            }
+            if (e instanceof JRFillInterruptedException) {
+                throw new JRException("The report filling thread was interrupted.", e);
+            }
+            throw e;
+        } finally {
+            if (cancellation != null) {
+                cancellation.finish();
+            }
+        }
+    }
+
+    private String getQueryTimeoutLabel() {
+        return queryTimeout > 0 ? queryTimeout + " seconds" : "the " + timeout + " seconds of the report";
+    }
+
+    private static boolean isQueryTimeout(final Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TimeoutException timeout(final String message, final Exception cause) {
+        final TimeoutException timeoutException = new TimeoutException(message);
+        timeoutException.initCause(cause);
+        return timeoutException;
+    }
+
+    /**
+     * Cancels a fill once its time is up, unless it is finished.
+     */
+    private static final class Cancellation implements Runnable {
+
+        private final JRBaseFiller filler;
+
+        private final Thread fillingThread;
+
+        private ScheduledFuture<?> schedule;
+
+        private boolean finished;
+
+        private boolean cancelled;
+
+        Cancellation(final JRBaseFiller filler, final Thread fillingThread) {
+            this.filler = filler;
+            this.fillingThread = fillingThread;
+        }
+
+        synchronized void schedule(final long nanos) {
+            schedule = TIMER.schedule(this, Math.max(0, nanos), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (finished) {
+                return;
+            }
+            cancelled = true;
+            try {
+                filler.cancelFill();
+            } catch (final JRException e) {
+                LOGGER.log(Level.FINE, "The running query could not be cancelled", e);
+            }
+            // the filler only interrupts its thread when no query is open, while rows are read it has to be interrupted too
+            fillingThread.interrupt();
+        }
+
+        /**
+         * Called by the filling thread once the fill is over.
+         *
+         * @return true if the fill was cancelled
+         */
+        synchronized boolean finish() {
+            if (!finished) {
+                finished = true;
+                schedule.cancel(false);
+                if (cancelled) {
+                    Thread.interrupted();
+                }
+            }
+            return cancelled;
+        }
+    }
+
+}
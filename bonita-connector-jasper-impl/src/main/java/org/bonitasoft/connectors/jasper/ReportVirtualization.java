@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.Locale;
+
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+
+/**
+ * How the pages of a filled report are kept while the report is filled and exported.
+ * <p>
+ * By default every page stays in memory. With a virtualizer only the most recently used pages stay in memory: the
+ * {@link Mode#SWAP_FILE} mode writes the other pages to a swap file, the {@link Mode#GZIP} mode keeps them compressed in
+ * memory. A virtualizer is used by a single report and must be cleaned up once the report is exported, which deletes its
+ * swap file.
+ */
+public class ReportVirtualization {
+
+    static final String MAX_PAGES_PROPERTY = "org.bonitasoft.connectors.jasper.virtualizer.maxPages";
+
+    static final String BLOCK_SIZE_PROPERTY = "org.bonitasoft.connectors.jasper.virtualizer.blockSize";
+
+    static final String MIN_GROW_COUNT_PROPERTY = "org.bonitasoft.connectors.jasper.virtualizer.minGrowCount";
+
+    static final int DEFAULT_MAX_PAGES = 100;
+
+    public enum Mode {
+        NONE, SWAP_FILE, GZIP
+    }
+
+    private final Mode mode;
+
+    private final int maxPages;
+
+    private final String directory;
+
+    /**
+     * @throws IllegalArgumentException if the mode is unknown or the number of pages is not positive
+     */
+    public ReportVirtualization(final String mode, final Integer maxPages, final String directory) {
+        this.mode = mode == null || mode.trim().isEmpty() ? Mode.NONE : Mode.valueOf(mode.trim().toUpperCase(Locale.ENGLISH));
+        this.maxPages = maxPages == null ? Integer.getInteger(MAX_PAGES_PROPERTY, DEFAULT_MAX_PAGES) : maxPages;
+        if (this.maxPages <= 0) {
+            throw new IllegalArgumentException("The number of pages kept in memory must be positive, current is " + this.maxPages);
+        }
+        this.directory = directory == null || directory.trim().isEmpty() ? System.getProperty("java.io.tmpdir") : directory.trim();
+    }
+
+    /**
+     * @return a new virtualizer for one report, or null if the pages are kept in memory
+     */
+    public JRVirtualizer createVirtualizer() {
+        switch (mode) {
+            case SWAP_FILE:
+                final JRSwapFile swapFile = new JRSwapFile(directory, Integer.getInteger(BLOCK_SIZE_PROPERTY, 4096),
+                        Integer.getInteger(MIN_GROW_COUNT_PROPERTY, 100));
+                // the virtualizer owns the swap file and disposes of it on cleanup
+                return new JRSwapFileVirtualizer(maxPages, swapFile, true);
+            case GZIP:
+                return new JRGzipVirtualizer(maxPages);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Marks the report as filled: pages are no longer modified, so they are not written again when swapped out.
+     */
+    public static void filled(final JRVirtualizer virtualizer) {
+        if (virtualizer instanceof JRAbstractLRUVirtualizer) {
+            ((JRAbstractLRUVirtualizer) virtualizer).setReadOnly(true);
+        }
+    }
+
+    public static void cleanup(final JRVirtualizer virtualizer) {
+        if (virtualizer != null) {
+            virtualizer.cleanup();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+
+/**
+ * Compiles report templates ahead of their first use, such as the templates given as warmUpDocuments to the connector
+ * which are used by later tasks of the process.
+ * <p>
+ * Templates are compiled on a background executor and put in the {@link CompiledReportCache} under the key the connector
+ * looks them up with, so that the first case using a template does not pay for its compilation. A dry fill against an
+ * empty data source can also be run to load the expression classes of the report and initialize the fill engine. The
+ * templates are compiled and filled with the context class loader of the thread submitting them, as the connector would.
+ */
+public class ReportWarmUp {
+
+    /** System property holding the number of threads warming up reports. */
+    public static final String THREADS_PROPERTY = "org.bonitasoft.connectors.jasper.warmUp.threads";
+
+    private static final int DEFAULT_THREADS = 1;
+
+    private static final Logger LOGGER = Logger.getLogger(ReportWarmUp.class.getName());
+
+    private static final ReportWarmUp INSTANCE = new ReportWarmUp(Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS));
+
+    private final ThreadPoolExecutor executor;
+
+    public ReportWarmUp(final int threads) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "jasper-report-warm-up-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        // no thread is kept once the templates are warmed up
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ReportWarmUp getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Warms up the given templates in the background.
+     *
+     * @param jrxmlContents
+     *            the JRXML sources of the reports
+     * @param dryFill
+     *            true to also fill each report with an empty data source
+     * @return the compiled reports, in the order of the sources, with null for the templates that failed to compile
+     */
+    public Future<List<JasperReport>> submit(final List<byte[]> jrxmlContents, final boolean dryFill) {
+        final List<byte[]> contents = new ArrayList<>(jrxmlContents);
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return executor.submit(new Callable<List<JasperReport>>() {
+
+            @Override
+            public List<JasperReport> call() {
+                final Thread thread = Thread.currentThread();
+                final ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try {
+                    return warmUp(contents, dryFill);
+                } finally {
+                    thread.setContextClassLoader(previous);
+                }
+            }
+        });
+    }
+
+    /**
+     * Warms up the given templates in the calling thread. A template failing to compile or to fill does not prevent the
+     * others from being warmed up.
+     *
+     * @return the compiled reports, in the order of the sources, with null for the templates that failed to compile
+     */
+    public static List<JasperReport> warmUp(final List<byte[]> jrxmlContents, final boolean dryFill) {
+        final List<JasperReport> reports = new ArrayList<>(jrxmlContents.size());
+        for (final byte[] jrxmlContent : jrxmlContents) {
+            final JasperReport report = compile(jrxmlContent);
+            if (report != null && dryFill) {
+                dryFill(report);
+            }
+            reports.add(report);
+        }
+        return Collections.unmodifiableList(reports);
+    }
+
+    private static JasperReport compile(final byte[] jrxmlContent) {
+        try {
+            return ReportCompiler.getOrCompile(jrxmlContent, false);
+        } catch (final JRException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to warm up report " + CompiledReportCache.key(jrxmlContent), e);
+            return null;
+        }
+    }
+
+    private static void dryFill(final JasperReport report) {
+        try {
+            final LocalJasperReportsContext fillContext = new LocalJasperReportsContext(
+                    DefaultJasperReportsContext.getInstance());
+            fillContext.setClassLoader(Thread.currentThread().getContextClassLoader());
+            JasperFillManager.getInstance(fillContext).fill(report, new HashMap<String, Object>(),
+                    new JREmptyDataSource(0));
+        } catch (final JRException | RuntimeException e) {
+            // the expressions of the report are loaded even when evaluating them fails without parameters
+            LOGGER.log(Level.FINE, "Dry fill of report " + report.getName() + " failed", e);
+        }
+    }
+
+    public int getThreads() {
+        return executor.getCorePoolSize();
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.repo.RepositoryService;
+import net.sf.jasperreports.repo.ReportResource;
+import net.sf.jasperreports.repo.Resource;
+
+/**
+ * Resolves the subreports referenced by a master report among the subreports compiled with it.
+ * <p>
+ * A subreport whose expression is a location, such as <code>$P{SUBREPORT_DIR} + "invoice_lines.jasper"</code>, is found
+ * by the file name at the end of the location: the name of the subreport document, with either the <code>.jrxml</code>
+ * or the <code>.jasper</code> extension, or the name of the report itself followed by <code>.jasper</code>.
+ */
+public class SubreportRepository implements RepositoryService {
+
+    private final Map<String, JasperReport> reports = new HashMap<>();
+
+    /**
+     * @param fileName
+     *            name of the document the subreport comes from
+     */
+    public void add(final String fileName, final JasperReport report) {
+        reports.put(fileName, report);
+        reports.put(baseName(fileName) + ReportCompiler.JRXML_EXTENSION, report);
+        reports.put(baseName(fileName) + ReportCompiler.JASPER_EXTENSION, report);
+        reports.put(report.getName() + ReportCompiler.JASPER_EXTENSION, report);
+    }
+
+    public JasperReport getReport(final String location) {
+        if (location == null) {
+            return null;
+        }
+        final JasperReport report = reports.get(location);
+        if (report != null) {
+            return report;
+        }
+        return reports.get(location.substring(Math.max(location.lastIndexOf('/'), location.lastIndexOf('\\')) + 1));
+    }
+
+    public boolean isEmpty() {
+        return reports.isEmpty();
+    }
+
+    private static String baseName(final String fileName) {
+        final int extension = fileName.lastIndexOf('.');
+        return extension < 0 ? fileName : fileName.substring(0, extension);
+    }
+
+    // the deprecated methods of the service are still called by JasperReports 5.1: the repository has no context, and no
+    // streams but the reports it resolves
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setContext(final net.sf.jasperreports.repo.RepositoryContext context) {
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void revertContext() {
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public InputStream getInputStream(final String uri) {
+        return null;
+    }
+
+    @Override
+    public Resource getResource(final String uri) {
+        return getResource(uri, ReportResource.class);
+    }
+
+    /**
+     * @throws JRRuntimeException
+     *             always: the repository only holds the subreports compiled with the master report
+     */
+    @Override
+    public void saveResource(final String uri, final Resource resource) {
+        throw new JRRuntimeException("Resource " + uri + " cannot be saved: the repository only resolves the subreports of the report");
+    }
+
+    @Override
+    public <K extends Resource> K getResource(final String uri, final Class<K> resourceType) {
+        if (!resourceType.isAssignableFrom(ReportResource.class)) {
+            return null;
+        }
+        final JasperReport report = getReport(uri);
+        if (report == null) {
+            return null;
+        }
+        final ReportResource resource = new ReportResource();
+        resource.setReport(report);
+        return resourceType.cast(resource);
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.bonitasoft.connectors.jasper.ClassFileCache;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.junit.Test;
+
+public class ClassFileCacheTest {
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Test
+    public void should_parse_a_class_file_once() throws Exception {
+        final ClassFileCache cache = new ClassFileCache(10);
+
+        final ClassFileReader reader = cache.getClassFile(classLoader, "java.lang.String");
+
+        assertEquals("java/lang/String", new String(reader.getName()));
+        assertSame(reader, cache.getClassFile(classLoader, "java.lang.String"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void should_remember_missing_classes_and_packages() throws Exception {
+        final ClassFileCache cache = new ClassFileCache(10);
+
+        assertNull(cache.getClassFile(classLoader, "java.lang.Missing"));
+        assertNull(cache.getClassFile(classLoader, "java.lang.Missing"));
+        assertTrue(cache.isPackage(classLoader, "java.lang"));
+        assertTrue(cache.isPackage(classLoader, "java.lang"));
+        assertFalse(cache.isPackage(classLoader, "java.lang.String"));
+
+        assertEquals(3, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void should_keep_entries_per_class_loader() throws Exception {
+        final ClassFileCache cache = new ClassFileCache(10);
+        try (URLClassLoader other = new URLClassLoader(new URL[0], classLoader)) {
+            final ClassFileReader reader = cache.getClassFile(classLoader, "java.lang.String");
+
+            assertNotSame(reader, cache.getClassFile(other, "java.lang.String"));
+            assertEquals(2, cache.getMissCount());
+        }
+    }
+
+    @Test
+    public void should_evict_least_recently_used_lookups() throws Exception {
+        final ClassFileCache cache = new ClassFileCache(2);
+        final ClassFileReader reader = cache.getClassFile(classLoader, "java.lang.String");
+        cache.getClassFile(classLoader, "java.lang.Integer");
+        cache.getClassFile(classLoader, "java.lang.Long");
+
+        assertNotSame(reader, cache.getClassFile(classLoader, "java.lang.String"));
+        assertEquals(4, cache.getMissCount());
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+
+import org.bonitasoft.connectors.jasper.CompiledReportCache;
+import org.bonitasoft.connectors.jasper.ReportCompiler;
+import org.junit.Test;
+
+public class CompiledReportCacheTest {
+
+    @Test
+    public void should_compute_same_key_for_same_content() {
+        final String key = CompiledReportCache.key("<jasperReport/>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(key, CompiledReportCache.key("<jasperReport/>".getBytes(StandardCharsets.UTF_8)));
+        assertNotEquals(key, CompiledReportCache.key("<jasperReport />".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(64, key.length());
+    }
+
+    @Test
+    public void should_compile_only_once_and_count_hits() throws Exception {
+        final CompiledReportCache cache = new CompiledReportCache(10);
+        final CountingCompilation compilation = new CountingCompilation();
+
+        final JasperReport first = cache.getOrCompile("a", compilation);
+        final JasperReport second = cache.getOrCompile("a", compilation);
+
+        assertSame(first, second);
+        assertEquals(1, compilation.count.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void should_not_compile_a_report_cached_by_a_compilation_finished_after_the_miss() throws Exception {
+        final JasperReport report = mock(JasperReport.class);
+        final CompiledReportCache cache = new CompiledReportCache(10) {
+
+            private boolean missed;
+
+            @Override
+            public JasperReport get(final String key) {
+                // the first lookup misses the report cached right after it by another compilation
+                if (!missed) {
+                    missed = true;
+                    return null;
+                }
+                return super.get(key);
+            }
+        };
+        cache.put("a", report);
+        final CountingCompilation compilation = new CountingCompilation();
+
+        assertSame(report, cache.getOrCompile("a", compilation));
+        assertEquals(0, compilation.count.get());
+        assertEquals(0, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void should_evict_least_recently_used_report() throws Exception {
+        final CompiledReportCache cache = new CompiledReportCache(2);
+        final CountingCompilation compilation = new CountingCompilation();
+        cache.getOrCompile("a", compilation);
+        cache.getOrCompile("b", compilation);
+        cache.getOrCompile("a", compilation);
+
+        cache.getOrCompile("c", compilation);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(3, compilation.count.get());
+    }
+
+    @Test
+    public void should_compile_once_when_requested_concurrently() throws Exception {
+        final CompiledReportCache cache = new CompiledReportCache(10);
+        final CountingCompilation compilation = new CountingCompilation();
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<JasperReport>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<JasperReport>() {
+
+                    @Override
+                    public JasperReport call() throws Exception {
+                        start.await();
+                        return cache.getOrCompile("a", compilation);
+                    }
+                }));
+            }
+            start.countDown();
+            for (final Future<JasperReport> result : results) {
+                assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, compilation.count.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(threads - 1, cache.getHitCount());
+    }
+
+    private static class CountingCompilation implements CompiledReportCache.ReportCompilation {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public JasperReport compile() throws JRException {
+            count.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return mock(JasperReport.class);
+        }
+    }
+
+    private static byte[] source(final String name) {
+        return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"" + name + "\">\n"
+                + "<title><band height=\"20\"><textField><reportElement x=\"0\" y=\"0\" width=\"200\" height=\"20\"/>"
+                + "<textFieldExpression><![CDATA[\"" + name + "\" + new java.util.Date()]]></textFieldExpression></textField></band></title>\n"
+                + "</jasperReport>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void should_share_the_reports_compiled_together_by_concurrent_lookups() throws Exception {
+        final String suffix = String.valueOf(System.nanoTime());
+        final List<byte[]> sources = Arrays.asList(source("master" + suffix), source("lines" + suffix));
+        final List<Boolean> precompiled = Arrays.asList(false, false);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<Future<List<JasperReport>>> lookups = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                lookups.add(executor.submit(new Callable<List<JasperReport>>() {
+
+                    @Override
+                    public List<JasperReport> call() throws Exception {
+                        start.await();
+                        return ReportCompiler.getOrCompileAll(sources, precompiled);
+                    }
+                }));
+            }
+            start.countDown();
+            final List<JasperReport> first = lookups.get(0).get();
+            final List<JasperReport> second = lookups.get(1).get();
+            assertSame(first.get(0), second.get(0));
+            assertSame(first.get(1), second.get(1));
+            assertEquals("lines" + suffix, first.get(1).getName());
+            assertSame(first.get(0), CompiledReportCache.getInstance().get(CompiledReportCache.key(sources.get(0))));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
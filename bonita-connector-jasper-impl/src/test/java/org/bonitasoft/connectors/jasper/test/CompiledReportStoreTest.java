@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import net.sf.jasperreports.engine.JasperReport;
+
+import org.bonitasoft.connectors.jasper.CompiledReportCache;
+import org.bonitasoft.connectors.jasper.CompiledReportStore;
+import org.bonitasoft.connectors.jasper.ReportCompiler;
+import org.bonitasoft.engine.io.IOUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledReportStoreTest {
+
+    private File directory;
+
+    private CompiledReportStore store;
+
+    private byte[] jrxmlContent;
+
+    private String key;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("jasperStore").toFile();
+        store = new CompiledReportStore(directory);
+        jrxmlContent = IOUtil.getAllContentFrom(new File("src/test/resources/report1.jrxml"));
+        key = CompiledReportCache.key(jrxmlContent);
+    }
+
+    @Test
+    public void should_load_saved_report() throws Exception {
+        final JasperReport report = ReportCompiler.compile(jrxmlContent);
+
+        store.save(key, report);
+        final JasperReport loaded = store.load(key);
+
+        assertNotNull(loaded);
+        assertEquals(report.getName(), loaded.getName());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void should_ignore_missing_report() {
+        assertNull(store.load(key));
+    }
+
+    @Test
+    public void should_ignore_and_remove_corrupt_report() throws Exception {
+        store.save(key, ReportCompiler.compile(jrxmlContent));
+        final File file = directory.listFiles()[0];
+        Files.write(file.toPath(), "not a report".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(store.load(key));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void should_ignore_report_saved_by_another_jasper_version() throws Exception {
+        store.save(key, ReportCompiler.compile(jrxmlContent));
+        final File file = directory.listFiles()[0];
+        Files.move(file.toPath(), new File(directory, key + "-4.0.0.jasper").toPath());
+
+        assertNull(store.load(key));
+    }
+
+}
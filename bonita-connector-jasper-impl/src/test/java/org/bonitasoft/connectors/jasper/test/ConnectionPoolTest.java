@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.bonitasoft.connectors.jasper.ConnectionPool;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ConnectionPoolTest {
+
+    private static final String DRIVER = "org.hsqldb.jdbcDriver";
+
+    private static final String URL = "jdbc:hsqldb:mem:pool";
+
+    @BeforeClass
+    public static void loadDriver() throws Exception {
+        Class.forName(DRIVER);
+    }
+
+    @After
+    public void closePools() {
+        ConnectionPool.closeAll();
+    }
+
+    @Test
+    public void should_share_pool_for_same_database_and_credentials() {
+        final ConnectionPool pool = ConnectionPool.getPool(DRIVER, URL, "sa", "");
+
+        assertSame(pool, ConnectionPool.getPool(DRIVER, URL, "sa", ""));
+        assertNotSame(pool, ConnectionPool.getPool(DRIVER, URL, "sa", "other"));
+    }
+
+    @Test
+    public void should_give_connection_back_to_pool_on_close() throws Exception {
+        final ConnectionPool pool = ConnectionPool.getPool(DRIVER, URL, "sa", "");
+
+        final Connection connection = pool.getConnection();
+        assertEquals(1, pool.getActiveCount());
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+        pool.getConnection().close();
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void should_reset_connection_state_when_given_back() throws Exception {
+        final ConnectionPool pool = ConnectionPool.getPool(DRIVER, URL, "sa", "");
+        final Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+        connection.createStatement().execute("create table pooled (id INTEGER)");
+        connection.close();
+
+        final Connection reused = pool.getConnection();
+        try {
+            assertTrue(reused.getAutoCommit());
+            assertFalse(reused.isReadOnly());
+        } finally {
+            reused.createStatement().execute("drop table pooled");
+            reused.close();
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void should_reject_calls_on_closed_connection() throws Exception {
+        final Connection connection = ConnectionPool.getPool(DRIVER, URL, "sa", "").getConnection();
+        connection.close();
+
+        connection.createStatement();
+    }
+
+    @Test
+    public void should_close_idle_connections_when_closing_pools() throws Exception {
+        final ConnectionPool pool = ConnectionPool.getPool(DRIVER, URL, "sa", "");
+        pool.getConnection().close();
+
+        ConnectionPool.closeAll();
+
+        assertEquals(0, pool.getIdleCount());
+        assertNotSame(pool, ConnectionPool.getPool(DRIVER, URL, "sa", ""));
+    }
+
+}
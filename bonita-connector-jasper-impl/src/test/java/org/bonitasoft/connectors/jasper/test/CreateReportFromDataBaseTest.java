@@ -15,28 +15,46 @@
 
 package org.bonitasoft.connectors.jasper.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+import org.bonitasoft.connectors.jasper.CompiledReportCache;
+import org.bonitasoft.connectors.jasper.ConnectionPool;
 import org.bonitasoft.connectors.jasper.CreateReportFromDataBase;
+import org.bonitasoft.connectors.jasper.DataSources;
+import org.bonitasoft.connectors.jasper.ReportPrecompiler;
 import org.bonitasoft.engine.api.APIAccessor;
 import org.bonitasoft.engine.api.ProcessAPI;
+import org.bonitasoft.engine.bpm.document.DocumentAttachmentException;
 import org.bonitasoft.engine.bpm.document.DocumentNotFoundException;
 import org.bonitasoft.engine.bpm.document.DocumentValue;
 import org.bonitasoft.engine.bpm.document.impl.DocumentImpl;
@@ -70,6 +88,8 @@ public class CreateReportFromDataBaseTest {
 
     final String PASSWORD = "password";
 
+    final String DATA_SOURCE_NAME = "dataSourceName";
+
     final String JRXML_DOC = "jrxmlDocument";
 
     final String PARAMETERS = "parameters";
@@ -78,6 +98,40 @@ public class CreateReportFromDataBaseTest {
 
     final String OUTPUT_FORMAT = "outputFormat";
 
+    final String FETCH_SIZE = "fetchSize";
+
+    final String READ_ONLY = "readOnly";
+
+    final String STREAM_RESULT_SET = "streamResultSet";
+
+    final String SUBREPORT_DOCS = "subreportDocuments";
+
+    final String WARM_UP_DOCS = "warmUpDocuments";
+
+    final String VIRTUALIZER = "virtualizer";
+
+    final String VIRTUALIZER_MAX_PAGES = "virtualizerMaxPages";
+
+    final String VIRTUALIZER_DIRECTORY = "virtualizerDirectory";
+
+    final String ASYNCHRONOUS = "asynchronous";
+
+    final String REPORT_DOC = "reportDocument";
+
+    final String ERROR_VARIABLE = "errorVariable";
+
+    final String TIMEOUT = "timeout";
+
+    final String QUERY_TIMEOUT = "queryTimeout";
+
+    final String FILL_TIMEOUT = "fillTimeout";
+
+    final String MAX_ROWS = "maxRows";
+
+    final String DATA_EXPORT = "dataExport";
+
+    final String MAX_OUTPUT_SIZE = "maxOutputSize";
+
     private static final String WRONG_DB_DRIVER = "com.mysql.jdbc.DriverWRONG";
 
     private static final String WRONG_JRXML_DOC = "wrongJrxml";
@@ -176,6 +230,16 @@ public class CreateReportFromDataBaseTest {
         connector.validateInputParameters();
     }
 
+    @Test
+    public void should_not_keep_a_connection_borrowed_after_validation() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+
+        connector.validateInputParameters();
+
+        assertEquals(0, ConnectionPool.getPool("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:database", "sa", "").getActiveCount());
+    }
+
     /**
      * test wrong database driver. make sure provide a wrong database driver
      * 
@@ -260,7 +324,7 @@ public class CreateReportFromDataBaseTest {
     }
 
     /**
-     * test wrong output format. other format except "xml", "html" and "pdf" will cause an error.
+     * test wrong output format. other format except "xml", "html", "pdf", "csv", "xlsx" and "docx" will cause an error.
      * 
      * @throws BonitaException
      */
@@ -280,6 +344,11 @@ public class CreateReportFromDataBaseTest {
         connector.setInputParameters(inputs);
         connector.validateInputParameters();
 
+        outputFormat = "XLSX";
+        inputs.put(OUTPUT_FORMAT, outputFormat);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+
         outputFormat = "other_format";
         inputs.put(OUTPUT_FORMAT, outputFormat);
         connector.setInputParameters(inputs);
@@ -327,6 +396,17 @@ public class CreateReportFromDataBaseTest {
         assertTrue(contentFile.getName().contains(".zip"));
         assertTrue(contentFile.lastModified() > System.currentTimeMillis() - 60000);
         assertTrue(contentFile.length() > 500L);
+
+        final List<String> entries = new ArrayList<String>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(reportContent))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        assertEquals("jasper_report.html", entries.get(0));
+        for (final String entry : entries.subList(1, entries.size())) {
+            assertTrue(entry, entry.startsWith("jasper_report.html_files/"));
+        }
     }
 
     /**
@@ -355,6 +435,57 @@ public class CreateReportFromDataBaseTest {
 
     }
 
+    /**
+     * test create a report through the single format method.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportInASingleFormat() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        connector.validateInputParameters();
+        final Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put("param2", "1");
+        connector.createJasperReportFromDataBase("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:database", "sa", "", "jrxml", parameters, "xml");
+
+        final DocumentValue report = (DocumentValue) connector.getResult();
+        assertTrue(report.getFileName().endsWith(".xml"));
+        assertEquals(1, connector.getResults().size());
+    }
+
+    /**
+     * test create a report as CSV, XLSX and DOCX.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportCsvXlsxDocx() throws Exception {
+        getMockedContext();
+
+        CreateReportFromDataBase connector = getWorkingConnector("csv");
+        connector.validateInputParameters();
+        connector.execute();
+        DocumentValue report = (DocumentValue) connector.getResult();
+        assertEquals("text/csv", report.getMimeType());
+        assertEquals("jasper_report.csv", report.getFileName());
+        assertTrue(new String(report.getContent(), "UTF-8").split("\n").length >= 3);
+
+        connector = getWorkingConnector("xlsx");
+        connector.validateInputParameters();
+        connector.execute();
+        report = (DocumentValue) connector.getResult();
+        assertEquals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", report.getMimeType());
+        assertEquals("PK", new String(report.getContent(), 0, 2, "US-ASCII"));
+
+        connector = getWorkingConnector("docx");
+        connector.validateInputParameters();
+        connector.execute();
+        report = (DocumentValue) connector.getResult();
+        assertEquals("application/vnd.openxmlformats-officedocument.wordprocessingml.document", report.getMimeType());
+        assertEquals("PK", new String(report.getContent(), 0, 2, "US-ASCII"));
+    }
+
     /**
      * test create a report successfully.
      * 
@@ -381,17 +512,418 @@ public class CreateReportFromDataBaseTest {
 
     }
 
+    /**
+     * test create a report from a document compiled beforehand.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportFromPrecompiledReport() throws Exception {
+        final File source = new File("src/test/resources/report1.jrxml");
+        final File jasperFile = ReportPrecompiler.precompile(source, Files.createTempDirectory("jasperPrecompiled").toFile());
+        assertTrue(jasperFile.getName().endsWith(".jasper"));
+        getMockedContext(IOUtil.getAllContentFrom(jasperFile), "report.jasper");
+
+        CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        connector.validateInputParameters();
+        connector.execute();
+
+        byte[] reportContent = ((DocumentValue) connector.getResult()).getContent();
+        assertTrue(reportContent.length > 1000);
+    }
+
+    /**
+     * test create a report reading rows with a streaming, read-only cursor.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportWithStreamingResultSet() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(FETCH_SIZE, 2);
+        inputs.put(READ_ONLY, true);
+        inputs.put(STREAM_RESULT_SET, true);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        byte[] reportContent = ((DocumentValue) connector.getResult()).getContent();
+        assertTrue(reportContent.length > 1000);
+    }
+
+    /**
+     * test create a report keeping a single page in memory, the other pages being swapped to a file deleted afterwards.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportWithSwapFileVirtualizer() throws Exception {
+        getMockedContext();
+        final File swapDirectory = Files.createTempDirectory("swap").toFile();
+        try {
+            final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+            final Map<String, Object> inputs = new HashMap<String, Object>();
+            inputs.put(VIRTUALIZER, "SWAP_FILE");
+            inputs.put(VIRTUALIZER_MAX_PAGES, 1);
+            inputs.put(VIRTUALIZER_DIRECTORY, swapDirectory.getPath());
+            connector.setInputParameters(inputs);
+            connector.validateInputParameters();
+            connector.execute();
+
+            byte[] reportContent = ((DocumentValue) connector.getResult()).getContent();
+            assertTrue(reportContent.length > 1000);
+            assertEquals(0, swapDirectory.list().length);
+        } finally {
+            swapDirectory.delete();
+        }
+    }
+
+    /**
+     * test create a report whose subreport comes from another process document, both being compiled together.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportWithSubreport() throws Exception {
+        final File root = new File(".");
+        getMockedContext(IOUtil.getAllContentFrom(new File(root, "src/test/resources/master.jrxml")), "master.jrxml");
+        final DocumentImpl subreport = new DocumentImpl();
+        subreport.setId(2);
+        subreport.setProcessInstanceId(1);
+        subreport.setName("cities");
+        subreport.setFileName("cities.jrxml");
+        subreport.setContentMimeType("application/xml");
+        subreport.setContentStorageId("2L");
+        subreport.setHasContent(true);
+        when(processAPI.getLastDocument(1L, "cities")).thenReturn(subreport);
+        when(processAPI.getDocumentContent("2L")).thenReturn(IOUtil.getAllContentFrom(new File(root, "src/test/resources/cities.jrxml")));
+
+        final CreateReportFromDataBase connector = getWorkingConnector("xml");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(SUBREPORT_DOCS, Arrays.asList("cities"));
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        final String report = new String(((DocumentValue) connector.getResult()).getContent(), "UTF-8");
+        assertTrue(report.contains("GOTHAM"));
+        assertTrue(report.contains("LONDON"));
+    }
+
+    /**
+     * test create a report in the background, attached to a new document of the process instance once generated.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportAsynchronously() throws Exception {
+        getMockedContext();
+        when(processAPI.getLastDocument(1L, "report")).thenThrow(new DocumentNotFoundException(new Throwable("Document not found : report")));
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(ASYNCHRONOUS, true);
+        inputs.put(REPORT_DOC, "report");
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        assertNull(connector.getResult());
+        verify(processAPI, timeout(60000)).attachDocument(eq(1L), eq("report"), eq("jasper_report.pdf"), eq("application/pdf"),
+                any(byte[].class));
+    }
+
+    /**
+     * test a report generated in the background whose attachment fails: the error is set in the error variable.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testAsynchronousReportFailure() throws Exception {
+        getMockedContext();
+        when(processAPI.attachNewDocumentVersion(eq(1L), eq("report"), anyString(), anyString(), any(byte[].class))).thenThrow(
+                new DocumentAttachmentException(new Throwable("Storage is full")));
+        final CreateReportFromDataBase connector = getWorkingConnector("xml");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(ASYNCHRONOUS, true);
+        inputs.put(REPORT_DOC, "report");
+        inputs.put(ERROR_VARIABLE, "reportError");
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        verify(processAPI, timeout(60000)).updateProcessDataInstance(eq("reportError"), eq(1L), contains("Storage is full"));
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testAsynchronousReportWithoutDocument() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(ASYNCHRONOUS, true);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    /**
+     * test create a report within time limits, its queries being run with a timeout.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportWithTimeouts() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(TIMEOUT, 120);
+        inputs.put(QUERY_TIMEOUT, 30);
+        inputs.put(FILL_TIMEOUT, 60);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        byte[] reportContent = ((DocumentValue) connector.getResult()).getContent();
+        assertTrue(reportContent.length > 1000);
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testNegativeTimeout() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(FILL_TIMEOUT, -1);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    /**
+     * test create a report in several formats from a single fill, given as a list or separated by commas.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportInSeveralFormats() throws Exception {
+        getMockedContext();
+        CreateReportFromDataBase connector = getWorkingConnector("pdf, XLSX,csv");
+        connector.validateInputParameters();
+        connector.execute();
+
+        List<DocumentValue> reports = connector.getResults();
+        assertEquals(3, reports.size());
+        assertEquals("jasper_report.pdf", reports.get(0).getFileName());
+        assertEquals("jasper_report.XLSX", reports.get(1).getFileName());
+        assertEquals("jasper_report.csv", reports.get(2).getFileName());
+        assertEquals(reports.get(0), connector.getResult());
+        assertEquals("application/pdf", reports.get(0).getMimeType());
+        assertEquals("PK", new String(reports.get(1).getContent(), 0, 2, "US-ASCII"));
+        assertTrue(new String(reports.get(2).getContent(), "UTF-8").contains("Holmes"));
+
+        connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(OUTPUT_FORMAT, Arrays.asList("html", "docx"));
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        reports = connector.getResults();
+        assertEquals(2, reports.size());
+        assertEquals("jasper_report.html.zip", reports.get(0).getFileName());
+        assertEquals("jasper_report.docx", reports.get(1).getFileName());
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testSeveralFormatsAsynchronously() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf,xlsx");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(ASYNCHRONOUS, true);
+        inputs.put(REPORT_DOC, "report");
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    /**
+     * test export the data of a report as JSON Lines, without filling it.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testExportTheDataOfAReport() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("jsonl");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(DATA_EXPORT, true);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        final DocumentValue report = (DocumentValue) connector.getResult();
+        assertEquals("application/x-ndjson", report.getMimeType());
+        assertEquals("jasper_report.jsonl", report.getFileName());
+        final String[] lines = new String(report.getContent(), "UTF-8").split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"ID\":3,\"FIRSTNAME\":\"Henry Walton\",\"LASTNAME\":\"Jones\",\"STREET\":\"38 Adler Avenue\",\"CITY\":\"Fairfield\"}",
+                lines[0]);
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testDataExportFormat() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(DATA_EXPORT, true);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    /**
+     * test a report reading more rows than its limit is stopped.
+     * 
+     * @throws Exception
+     */
+    @Test(expected = ConnectorException.class)
+    public void testCreateAReportOverTheRowsLimit() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(MAX_ROWS, 2);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testNegativeLimit() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(MAX_OUTPUT_SIZE, -1);
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testWrongSubreportDocument() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(SUBREPORT_DOCS, Arrays.asList(WRONG_JRXML_DOC));
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    /**
+     * test compile in the background a template given as warm-up document, used later in the process.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testWarmUpADocument() throws Exception {
+        getMockedContext();
+        final byte[] template = IOUtil.getAllContentFrom(new File(new File("."), "src/test/resources/cities.jrxml"));
+        final DocumentImpl warmUp = new DocumentImpl();
+        warmUp.setId(3);
+        warmUp.setProcessInstanceId(1);
+        warmUp.setName("later");
+        warmUp.setFileName("later.jrxml");
+        warmUp.setContentMimeType("application/xml");
+        warmUp.setContentStorageId("3L");
+        warmUp.setHasContent(true);
+        when(processAPI.getLastDocument(1L, "later")).thenReturn(warmUp);
+        when(processAPI.getDocumentContent("3L")).thenReturn(template);
+        CompiledReportCache.getInstance().clear();
+
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(WARM_UP_DOCS, Arrays.asList("later"));
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+        connector.execute();
+
+        final long deadline = System.currentTimeMillis() + 60000;
+        while (CompiledReportCache.getInstance().get(CompiledReportCache.key(template)) == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(CompiledReportCache.getInstance().get(CompiledReportCache.key(template)) != null);
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testWrongWarmUpDocument() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(WARM_UP_DOCS, Arrays.asList(WRONG_JRXML_DOC));
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    @Test(expected = ConnectorValidationException.class)
+    public void testWrongVirtualizer() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(VIRTUALIZER, "disk");
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
+    /**
+     * test create a report using a server managed data source instead of the JDBC parameters.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testCreateAReportFromDataSource() throws Exception {
+        getMockedContext();
+        final LocalDataSource dataSource = new LocalDataSource("jdbc:hsqldb:mem:database", "sa", "");
+        DataSources.register("jdbc/reporting", dataSource);
+        try {
+            final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+            final Map<String, Object> inputs = new HashMap<String, Object>();
+            inputs.put(DB_DRIVER, WRONG_DB_DRIVER);
+            inputs.put(DATA_SOURCE_NAME, "jdbc/reporting");
+            connector.setInputParameters(inputs);
+            connector.validateInputParameters();
+            connector.execute();
+
+            byte[] reportContent = ((DocumentValue) connector.getResult()).getContent();
+            assertTrue(reportContent.length > 1000);
+            assertEquals(1, dataSource.openedConnections.get());
+        } finally {
+            DataSources.unregister("jdbc/reporting");
+        }
+    }
+
+    /**
+     * test unknown data source name.
+     * 
+     * @throws Exception
+     */
+    @Test(expected = ConnectorValidationException.class)
+    public void testWrongDataSourceName() throws Exception {
+        getMockedContext();
+        final CreateReportFromDataBase connector = getWorkingConnector("pdf");
+        final Map<String, Object> inputs = new HashMap<String, Object>();
+        inputs.put(DATA_SOURCE_NAME, "jdbc/unknown");
+        connector.setInputParameters(inputs);
+        connector.validateInputParameters();
+    }
+
     private void getMockedContext() throws Exception {
         final File root = new File(".");
         final File file = new File(root, "src/test/resources/report1.jrxml");
-        byte[] fileContent = IOUtil.getAllContentFrom(file);
+        getMockedContext(IOUtil.getAllContentFrom(file), "report.jrxml");
+    }
 
+    private void getMockedContext(final byte[] fileContent, final String fileName) throws Exception {
         DocumentImpl document = new DocumentImpl();
         document.setCreationDate(new Date());
         document.setId(1);
         document.setProcessInstanceId(1);
         document.setName("jrxml");
-        document.setFileName("report.jrxml");
+        document.setFileName(fileName);
         document.setContentMimeType("application/xml");
         document.setContentStorageId("1L");
         document.setHasContent(true);
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+import org.bonitasoft.connectors.jasper.DataExport;
+import org.bonitasoft.connectors.jasper.JRJdtCompiler;
+import org.bonitasoft.connectors.jasper.ReportExporters;
+import org.bonitasoft.connectors.jasper.ReportLimits;
+import org.bonitasoft.connectors.jasper.ReportLimits.LimitExceededException;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataExportTest {
+
+    /** System property holding the number of rows of the fill and data export benchmark. */
+    private static final String BENCHMARK_ROWS_PROPERTY = "org.bonitasoft.connectors.jasper.benchmark.rows";
+
+    private static final Logger LOGGER = Logger.getLogger(DataExportTest.class.getName());
+
+    private static final String URL = "jdbc:hsqldb:mem:dataexport";
+
+    private static final String REPORT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"addresses\""
+            + " pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n"
+            + "<parameter name=\"maxId\" class=\"java.lang.Integer\"/>\n"
+            + "<parameter name=\"cities\" class=\"java.util.Collection\"/>\n"
+            + "<parameter name=\"orderBy\" class=\"java.lang.String\"/>\n"
+            + "<queryString><![CDATA[select id, lastname, city from address where id <= $P{maxId} and $X{IN, city, cities}"
+            + " order by $P!{orderBy}]]></queryString>\n"
+            + "<field name=\"ID\" class=\"java.lang.Integer\"/>\n"
+            + "<field name=\"LASTNAME\" class=\"java.lang.String\"/>\n"
+            + "<field name=\"CITY\" class=\"java.lang.String\"/>\n"
+            + "</jasperReport>";
+
+    private Connection connection;
+
+    @Before
+    public void createTable() throws Exception {
+        Class.forName("org.hsqldb.jdbcDriver");
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table address (id INTEGER, firstname VARCHAR(50), lastname VARCHAR(50), street VARCHAR(50),"
+                    + " city VARCHAR(50))");
+            statement.execute("insert into address values (1, 'Sherlock', 'Holmes, \"Sherlock\"', '221B Baker Street', 'London')");
+            statement.execute("insert into address values (2, 'Bruce', 'Wayne', 'Wayne Manor', 'Gotham')");
+            statement.execute("insert into address values (3, 'Henry Walton', 'Jones', '38 Adler Avenue', 'Fairfield')");
+            statement.execute("insert into address values (4, 'John', null, '221B Baker Street', 'London')");
+        }
+    }
+
+    @After
+    public void deleteTable() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table address");
+        }
+        connection.close();
+    }
+
+    private static JasperReport compile(final InputStream jrxml) throws JRException {
+        return new JRJdtCompiler(new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance())).compileReport(JRXmlLoader
+                .load(jrxml));
+    }
+
+    private String export(final DataExport.Format format, final ReportLimits limits) throws Exception {
+        final Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("maxId", 3);
+        parameters.put("cities", Arrays.asList("London", "Gotham"));
+        parameters.put("orderBy", "id desc");
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DataExport.export(DefaultJasperReportsContext.getInstance(), compile(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8))),
+                parameters, connection, format, limits, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void should_export_the_rows_of_the_report_query_as_csv() throws Exception {
+        assertEquals("ID,LASTNAME,CITY\n2,Wayne,Gotham\n1,\"Holmes, \"\"Sherlock\"\"\",London\n",
+                export(DataExport.Format.csv, new ReportLimits(null, null, null)));
+    }
+
+    @Test
+    public void should_export_the_rows_of_the_report_query_as_json_lines() throws Exception {
+        assertEquals("{\"ID\":2,\"LASTNAME\":\"Wayne\",\"CITY\":\"Gotham\"}\n"
+                + "{\"ID\":1,\"LASTNAME\":\"Holmes, \\\"Sherlock\\\"\",\"CITY\":\"London\"}\n",
+                export(DataExport.Format.jsonl, new ReportLimits(null, null, null)));
+    }
+
+    @Test
+    public void should_stop_an_export_reading_too_many_rows() throws Exception {
+        try {
+            export(DataExport.Format.csv, new ReportLimits(null, 1, null));
+            fail("The query returns 2 rows");
+        } catch (final LimitExceededException e) {
+            assertEquals("The report reads more than the limit of 1 rows", e.getMessage());
+        }
+    }
+
+    /**
+     * Compares filling the report then exporting it as CSV with exporting its data only, on the address table scaled to
+     * the number of rows of the {@link #BENCHMARK_ROWS_PROPERTY} system property. Only run when the property is set, such
+     * as with <code>mvn test -Dorg.bonitasoft.connectors.jasper.benchmark.rows=1000000</code>.
+     */
+    @Test
+    public void benchmark_fill_and_csv_export_against_data_export() throws Exception {
+        final Integer benchmarkRows = Integer.getInteger(BENCHMARK_ROWS_PROPERTY);
+        Assume.assumeTrue(benchmarkRows != null);
+        final int rows = benchmarkRows;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("delete from address");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("insert into address values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "Firstname " + i);
+                insert.setString(3, "Lastname " + i);
+                insert.setString(4, i + " Baker Street");
+                insert.setString(5, "City " + i % 100);
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        final JasperReport report = compile(getClass().getResourceAsStream("/report1.jrxml"));
+
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long start = System.nanoTime();
+        final JasperPrint print = JasperFillManager.fillReport(report, new HashMap<String, Object>(), connection);
+        final ByteArrayOutputStream filled = new ByteArrayOutputStream();
+        ReportExporters.exportCsv(print, filled);
+        final long fillMillis = (System.nanoTime() - start) / 1000000;
+        final long fillHeap = runtime.totalMemory() - runtime.freeMemory();
+
+        System.gc();
+        start = System.nanoTime();
+        final ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        final long exportedRows = DataExport.export(DefaultJasperReportsContext.getInstance(), report, new HashMap<String, Object>(),
+                connection, DataExport.Format.csv, new ReportLimits(null, null, null), exported);
+        final long exportMillis = (System.nanoTime() - start) / 1000000;
+        final long exportHeap = runtime.totalMemory() - runtime.freeMemory();
+
+        LOGGER.info(rows + " rows, fill and CSV export: " + fillMillis + " ms, " + print.getPages().size() + " pages, "
+                + filled.size() / 1024 + " KB, " + fillHeap / (1024 * 1024) + " MB used");
+        LOGGER.info(rows + " rows, data export: " + exportMillis + " ms, " + exported.size() / 1024 + " KB, " + exportHeap
+                / (1024 * 1024) + " MB used");
+        assertEquals(rows, exportedRows);
+        assertEquals(rows + 1, new String(exported.toByteArray(), StandardCharsets.UTF_8).split("\n").length);
+        assertTrue("The data export took " + exportMillis + " ms, the fill and CSV export " + fillMillis + " ms",
+                exportMillis < fillMillis);
+    }
+
+}
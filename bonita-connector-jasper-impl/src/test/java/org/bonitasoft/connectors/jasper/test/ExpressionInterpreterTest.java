@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JRReportCompileData;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+import org.bonitasoft.connectors.jasper.JRJdtCompiler;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class ExpressionInterpreterTest {
+
+    private static final String BENCHMARK_REPORTS_PROPERTY = "org.bonitasoft.connectors.jasper.benchmark.reports";
+
+    private static final Logger LOGGER = Logger.getLogger(ExpressionInterpreterTest.class.getName());
+
+    private static final List<String> SIMPLE_EXPRESSIONS = Arrays.asList(
+            "$P{firstname} + \" \" + $P{lastname}",
+            "$P{count} * 2 + 1",
+            "\"Total: \" + ($P{count} / 2) + \" or \" + $P{count} / 2.0",
+            "$P{ratio} * $P{count} - 0.5f",
+            "-$P{count} % 2L",
+            "1 + 2 + \"\\t\" + 1 + 2",
+            "new java.math.BigDecimal(\"1.50\")",
+            "new Integer($P{count} + 1)",
+            "new Double(1) + \"|\" + new java.lang.Long(7L) + \"|\" + new BigDecimal(2.5f)",
+            "$P{nothing} * 2",
+            "\"Value: \" + $P{nothing} + \" \" + null",
+            "$P{amount}",
+            "$R{missing.key}",
+            "null");
+
+    private static byte[] report(final String mode, final List<String> expressions) {
+        final StringBuilder report = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"expressions\""
+                + " pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n");
+        if (mode != null) {
+            report.append("<property name=\"" + JRJdtCompiler.EXPRESSIONS_PROPERTY + "\" value=\"" + mode + "\"/>\n");
+        }
+        report.append("<parameter name=\"firstname\" class=\"java.lang.String\"/>\n"
+                + "<parameter name=\"lastname\" class=\"java.lang.String\"/>\n"
+                + "<parameter name=\"count\" class=\"java.lang.Integer\"/>\n"
+                + "<parameter name=\"ratio\" class=\"java.lang.Double\"/>\n"
+                + "<parameter name=\"amount\" class=\"java.math.BigDecimal\"/>\n"
+                + "<parameter name=\"nothing\" class=\"java.lang.Integer\"/>\n"
+                + "<title><band height=\"" + expressions.size() * 20 + "\">\n");
+        for (int i = 0; i < expressions.size(); i++) {
+            report.append("<textField isBlankWhenNull=\"true\"><reportElement x=\"0\" y=\"" + i * 20
+                    + "\" width=\"500\" height=\"20\"/><textFieldExpression><![CDATA[" + expressions.get(i)
+                    + "]]></textFieldExpression></textField>\n");
+        }
+        report.append("</band></title>\n</jasperReport>");
+        return report.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JasperReport compile(final byte[] report) throws JRException {
+        return new JRJdtCompiler(new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance())).compileReport(JRXmlLoader
+                .load(new ByteArrayInputStream(report)));
+    }
+
+    /**
+     * @return the text and the class of the value of each text field
+     */
+    private static List<String> fill(final JasperReport report) throws JRException {
+        final Map<String, Object> parameters = new HashMap<>();
+        parameters.put("firstname", "Bruce");
+        parameters.put("lastname", "Wayne");
+        parameters.put("count", 3);
+        parameters.put("ratio", 1.5);
+        parameters.put("amount", new BigDecimal("12.30"));
+        final JasperPrint print = JasperFillManager.fillReport(report, parameters, new JREmptyDataSource(1));
+        final List<String> texts = new ArrayList<>();
+        for (final JRPrintElement element : print.getPages().get(0).getElements()) {
+            final JRPrintText text = (JRPrintText) element;
+            texts.add(text.getFullText() + " (" + (text.getValue() == null ? null : text.getValue().getClass().getName()) + ")");
+        }
+        return texts;
+    }
+
+    private static boolean isCompiled(final JasperReport report) {
+        return ((JRReportCompileData) report.getCompileData()).getMainDatasetCompileData() instanceof byte[];
+    }
+
+    @Test
+    public void should_evaluate_simple_expressions_as_the_compiled_class_does() throws Exception {
+        final JasperReport compiled = compile(report(null, SIMPLE_EXPRESSIONS));
+        final JasperReport interpreted = compile(report(JRJdtCompiler.EXPRESSIONS_INTERPRETED, SIMPLE_EXPRESSIONS));
+
+        assertTrue(isCompiled(compiled));
+        assertFalse(isCompiled(interpreted));
+        assertEquals(JRJdtCompiler.class.getName(), interpreted.getCompilerClass());
+        final List<String> expected = fill(compiled);
+        assertEquals("Bruce Wayne (java.lang.String)", expected.get(0));
+        assertEquals(expected, fill(interpreted));
+    }
+
+    private static long getMetaspaceUsed() {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if ("Metaspace".equals(pool.getName())) {
+                return pool.getUsage().getUsed();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compiles and fills the given number of different reports in the given mode.
+     *
+     * @return the milliseconds taken, the classes loaded and the bytes of metaspace used meanwhile
+     */
+    private static long[] compileAndFill(final String mode, final int reports) throws JRException {
+        final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        System.gc();
+        final long classes = classLoading.getTotalLoadedClassCount();
+        final long metaspace = getMetaspaceUsed();
+        final long start = System.nanoTime();
+        for (int i = 0; i < reports; i++) {
+            final List<String> expressions = new ArrayList<>(SIMPLE_EXPRESSIONS);
+            expressions.add("\"report " + mode + " " + i + "\"");
+            fill(compile(report(mode, expressions)));
+        }
+        return new long[] { (System.nanoTime() - start) / 1000000, classLoading.getTotalLoadedClassCount() - classes,
+                getMetaspaceUsed() - metaspace };
+    }
+
+    /**
+     * Compares compiling and filling reports with interpreted expressions with doing it with JDT, on the number of reports
+     * of the {@link #BENCHMARK_REPORTS_PROPERTY} system property. Only run when the property is set, such as with
+     * <code>mvn test -Dorg.bonitasoft.connectors.jasper.benchmark.reports=500</code>.
+     */
+    @Test
+    public void benchmark_interpreted_against_compiled_expressions() throws Exception {
+        final Integer benchmarkReports = Integer.getInteger(BENCHMARK_REPORTS_PROPERTY);
+        Assume.assumeTrue(benchmarkReports != null);
+        final int reports = benchmarkReports;
+        // warms up both paths, so that neither pays for loading the engine
+        compileAndFill(JRJdtCompiler.EXPRESSIONS_INTERPRETED, 10);
+        compileAndFill(null, 10);
+
+        final long[] interpreted = compileAndFill(JRJdtCompiler.EXPRESSIONS_INTERPRETED, reports);
+        final long[] compiled = compileAndFill(null, reports);
+
+        LOGGER.info(reports + " reports, interpreted: " + interpreted[0] + " ms, " + interpreted[1] + " classes loaded, "
+                + interpreted[2] / 1024 + " KB of metaspace");
+        LOGGER.info(reports + " reports, compiled with JDT: " + compiled[0] + " ms, " + compiled[1] + " classes loaded, "
+                + compiled[2] / 1024 + " KB of metaspace");
+        // the times are logged only: they depend on the machine, while each compiled report loads its own class
+        assertTrue("The interpreted reports loaded " + interpreted[1] + " classes, the compiled ones " + compiled[1],
+                interpreted[1] < compiled[1]);
+    }
+
+    @Test
+    public void should_evaluate_saved_interpreted_report() throws Exception {
+        final ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        JRSaver.saveObject(compile(report(JRJdtCompiler.EXPRESSIONS_INTERPRETED, SIMPLE_EXPRESSIONS)), saved);
+
+        final JasperReport loaded = (JasperReport) JRLoader.loadObject(new ByteArrayInputStream(saved.toByteArray()));
+
+        assertEquals(fill(compile(report(null, SIMPLE_EXPRESSIONS))), fill(loaded));
+    }
+
+    @Test
+    public void should_compile_units_with_expressions_that_cannot_be_interpreted() throws Exception {
+        final JasperReport report = compile(report(JRJdtCompiler.EXPRESSIONS_INTERPRETED,
+                Arrays.asList("$P{firstname}.toUpperCase()", "$P{count} + 1")));
+
+        assertTrue(isCompiled(report));
+        assertEquals(JRJdtCompiler.class.getName(), report.getCompilerClass());
+        assertEquals(Arrays.asList("BRUCE (java.lang.String)", "4 (java.lang.Integer)"), fill(report));
+    }
+
+    @Test
+    public void should_leave_expressions_that_would_not_compile_to_the_compiler() throws Exception {
+        for (final String expression : Arrays.asList("$P{firstname} * 2", "$P{count} + true", "new Integer(1L)", "08",
+                "2147483648", "$P{count}++", "$P{firstname} +")) {
+            try {
+                compile(report(JRJdtCompiler.EXPRESSIONS_INTERPRETED, Arrays.asList(expression)));
+                throw new AssertionError(expression + " should not compile");
+            } catch (final JRException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("Errors were encountered when compiling report expressions"));
+            }
+        }
+    }
+
+}
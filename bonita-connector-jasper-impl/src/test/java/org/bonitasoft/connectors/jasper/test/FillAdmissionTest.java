@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bonitasoft.connectors.jasper.FillAdmission;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class FillAdmissionTest {
+
+    private static void assertRejected(final FillAdmission admission, final String database, final Integer weight, final String reason)
+            throws InterruptedException {
+        try {
+            admission.acquire(database, weight).close();
+            fail("The report should not be admitted");
+        } catch (final TimeoutException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("The report was not admitted within 0 seconds: " + reason));
+        }
+    }
+
+    @Test
+    public void should_bound_the_reports_filled_at_a_time() throws Exception {
+        final FillAdmission admission = new FillAdmission(2, 0, 0, 0, 0);
+        final FillAdmission.Permit first = admission.acquire("jdbc:hsqldb:mem:a", null);
+        final FillAdmission.Permit second = admission.acquire("jdbc:hsqldb:mem:b", null);
+
+        assertEquals(2, admission.getActiveCount());
+        assertRejected(admission, null, null, "2 reports are already being filled, 2 reports are being filled and 1 are waiting");
+        first.close();
+        first.close();
+        assertEquals(1, admission.getActiveCount());
+        admission.acquire(null, null).close();
+        second.close();
+        assertEquals(0, admission.getActiveCount());
+        assertEquals(0, admission.getQueueLength());
+    }
+
+    @Test
+    public void should_not_bound_the_reports_filled_at_a_time_by_default() throws Exception {
+        Assume.assumeTrue(System.getProperty(FillAdmission.MAX_FILLS_PROPERTY) == null);
+        final List<FillAdmission.Permit> permits = new ArrayList<>();
+        try {
+            for (int i = 0; i <= Runtime.getRuntime().availableProcessors(); i++) {
+                permits.add(FillAdmission.getInstance().acquire(null, null, 0));
+            }
+        } finally {
+            for (final FillAdmission.Permit permit : permits) {
+                permit.close();
+            }
+        }
+    }
+
+    @Test
+    public void should_bound_the_reports_filled_from_a_database() throws Exception {
+        final FillAdmission admission = new FillAdmission(0, 1, 0, 0, 0);
+        final FillAdmission.Permit permit = admission.acquire("jdbc:hsqldb:mem:a", null);
+
+        assertEquals(1, admission.getActiveCount("jdbc:hsqldb:mem:a"));
+        assertRejected(admission, "jdbc:hsqldb:mem:a", null, "database jdbc:hsqldb:mem:a already fills 1 reports");
+        admission.acquire("jdbc:hsqldb:mem:b", null).close();
+        admission.acquire(null, null).close();
+        permit.close();
+        assertEquals(0, admission.getActiveCount("jdbc:hsqldb:mem:a"));
+    }
+
+    @Test
+    public void should_weigh_reports_against_the_memory_budget() throws Exception {
+        final FillAdmission admission = new FillAdmission(0, 0, 100, 30, 0);
+        final FillAdmission.Permit heavy = admission.acquire(null, 60);
+        final FillAdmission.Permit light = admission.acquire(null, null);
+
+        assertEquals(10, admission.getAvailableMemory());
+        assertRejected(admission, null, 20, "the 20 MB it needs are not available in the memory budget of 100 MB");
+        heavy.close();
+        light.close();
+        // heavier than the whole budget: admitted once nothing else runs
+        admission.acquire(null, 500).close();
+        assertEquals(100, admission.getAvailableMemory());
+    }
+
+    @Test
+    public void should_admit_a_waiting_report_once_a_permit_is_released() throws Exception {
+        final FillAdmission admission = new FillAdmission(1, 0, 0, 0, 30);
+        final FillAdmission.Permit permit = admission.acquire(null, null);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> waiting = executor.submit(new Callable<Boolean>() {
+
+                @Override
+                public Boolean call() throws Exception {
+                    admission.acquire(null, null).close();
+                    return true;
+                }
+            });
+            final long deadline = System.currentTimeMillis() + 30000;
+            while (admission.getQueueLength() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, admission.getQueueLength());
+
+            permit.close();
+            assertTrue(waiting.get(30, TimeUnit.SECONDS));
+            assertEquals(0, admission.getQueueLength());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
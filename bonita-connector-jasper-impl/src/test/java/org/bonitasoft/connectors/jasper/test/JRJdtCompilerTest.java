@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+import org.bonitasoft.connectors.jasper.JRJdtCompiler;
+import org.junit.Test;
+
+public class JRJdtCompilerTest {
+
+    private static final int THREADS = 8;
+
+    private static final int REPORTS = 32;
+
+    private static final String UNNECESSARY_CAST_PROPERTY = "org.eclipse.jdt.core.compiler.problem.unnecessaryTypeCheck";
+
+    private static byte[] report(final int index) {
+        return report("report" + index, "\"report \" + (" + index + " * 2)");
+    }
+
+    private static byte[] report(final String name, final String expression) {
+        return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"" + name
+                + "\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n"
+                + "<title><band height=\"20\"><textField><reportElement x=\"0\" y=\"0\" width=\"200\" height=\"20\"/>"
+                + "<textFieldExpression><![CDATA[" + expression + "]]></textFieldExpression></textField></band></title>\n"
+                + "</jasperReport>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JasperReport compile(final byte[] report) throws JRException {
+        return new JRJdtCompiler(new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance())).compileReport(JRXmlLoader
+                .load(new ByteArrayInputStream(report)));
+    }
+
+    @Test
+    public void should_apply_jdt_properties_changed_between_compilations() throws Exception {
+        final byte[] report = report("cast", "(String) \"report\"");
+        compile(report);
+        System.setProperty(UNNECESSARY_CAST_PROPERTY, "error");
+        try {
+            compile(report);
+            fail("The unnecessary cast should be reported as an error");
+        } catch (final JRException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Unnecessary cast"));
+        } finally {
+            System.clearProperty(UNNECESSARY_CAST_PROPERTY);
+        }
+        compile(report);
+    }
+
+    @Test
+    public void should_apply_jdt_properties_of_the_default_context_changed_between_compilations() throws Exception {
+        final byte[] report = report("cast", "(String) \"report\"");
+        compile(report);
+        DefaultJasperReportsContext.getInstance().setProperty(UNNECESSARY_CAST_PROPERTY, "error");
+        try {
+            compile(report);
+            fail("The unnecessary cast should be reported as an error");
+        } catch (final JRException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Unnecessary cast"));
+        } finally {
+            DefaultJasperReportsContext.getInstance().removeProperty(UNNECESSARY_CAST_PROPERTY);
+        }
+        compile(report);
+    }
+
+    @Test
+    public void should_compile_different_reports_concurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < REPORTS; i++) {
+                final int index = i;
+                results.add(executor.submit(new Callable<String>() {
+
+                    @Override
+                    public String call() throws Exception {
+                        final Thread thread = Thread.currentThread();
+                        final ClassLoader previous = thread.getContextClassLoader();
+                        thread.setContextClassLoader(new URLClassLoader(new URL[0], JRJdtCompilerTest.class.getClassLoader()));
+                        try {
+                            final LocalJasperReportsContext context = new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance());
+                            start.await();
+                            final JasperReport report = new JRJdtCompiler(context).compileReport(JRXmlLoader.load(new ByteArrayInputStream(report(index))));
+                            final JasperPrint print = JasperFillManager.fillReport(report, new HashMap<String, Object>(), new JREmptyDataSource(1));
+                            return print.getName() + ":" + ((JRPrintText) print.getPages().get(0).getElements().get(0)).getFullText();
+                        } finally {
+                            thread.setContextClassLoader(previous);
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < REPORTS; i++) {
+                assertEquals("report" + i + ":report " + (i * 2), results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -22,7 +22,13 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Jordi Anguela, Yanyan Liu
  */
 @RunWith(Suite.class)
-@SuiteClasses({ CreateReportFromDataBaseTest.class })
+@SuiteClasses({ CreateReportFromDataBaseTest.class, CompiledReportCacheTest.class, CompiledReportStoreTest.class, ConnectionPoolTest.class, JdbcFetchOptionsTest.class,
+        ReportOutputStreamTest.class, ClassFileCacheTest.class,
+        JRJdtCompilerTest.class, ReportWarmUpTest.class, ExpressionInterpreterTest.class, ReportClassLoadersTest.class,
+        ParameterPlanTest.class, ReportJobExecutorTest.class, FillAdmissionTest.class,
+        ReportTimeoutsTest.class,
+        ReportLimitsTest.class, DataExportTest.class,
+        ReportExportExecutorTest.class, ReportMetricsTest.class })
 public class JasperTests {
 
 }
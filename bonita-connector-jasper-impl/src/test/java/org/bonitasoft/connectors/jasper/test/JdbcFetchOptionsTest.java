@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+
+import org.bonitasoft.connectors.jasper.JdbcFetchOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JdbcFetchOptionsTest {
+
+    private LocalJasperReportsContext context;
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance());
+        connection = mock(Connection.class);
+    }
+
+    private void connectTo(final String jdbcUrl) throws Exception {
+        final DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getURL()).thenReturn(jdbcUrl);
+        when(connection.getMetaData()).thenReturn(metaData);
+    }
+
+    @Test
+    public void should_keep_driver_defaults_without_options() throws Exception {
+        new JdbcFetchOptions(null, null, null).configure(context, connection);
+
+        final DefaultJasperReportsContext defaults = DefaultJasperReportsContext.getInstance();
+        assertEquals(defaults.getProperty("net.sf.jasperreports.jdbc.fetch.size"), context.getProperty("net.sf.jasperreports.jdbc.fetch.size"));
+        assertNull(context.getProperty("net.sf.jasperreports.jdbc.result.set.type"));
+        verify(connection, never()).setReadOnly(true);
+    }
+
+    @Test
+    public void should_use_given_fetch_size_and_read_only_transaction() throws Exception {
+        new JdbcFetchOptions(500, true, false).configure(context, connection);
+
+        assertEquals("500", context.getProperty("net.sf.jasperreports.jdbc.fetch.size"));
+        verify(connection).setReadOnly(true);
+    }
+
+    @Test
+    public void should_stream_rows_one_by_one_with_mysql() throws Exception {
+        connectTo("jdbc:mysql://localhost/reporting");
+
+        new JdbcFetchOptions(null, null, true).configure(context, connection);
+
+        assertEquals(String.valueOf(Integer.MIN_VALUE), context.getProperty("net.sf.jasperreports.jdbc.fetch.size"));
+        assertEquals("forwardOnly", context.getProperty("net.sf.jasperreports.jdbc.result.set.type"));
+        assertEquals("readOnly", context.getProperty("net.sf.jasperreports.jdbc.concurrency"));
+    }
+
+    @Test
+    public void should_stream_rows_by_pages_with_other_databases() throws Exception {
+        connectTo("jdbc:postgresql://localhost/reporting");
+
+        new JdbcFetchOptions(null, null, true).configure(context, connection);
+
+        assertEquals("1000", context.getProperty("net.sf.jasperreports.jdbc.fetch.size"));
+    }
+
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+import org.bonitasoft.connectors.jasper.JRJdtCompiler;
+import org.bonitasoft.connectors.jasper.ParameterConverter;
+import org.bonitasoft.connectors.jasper.ParameterConverters;
+import org.bonitasoft.connectors.jasper.ParameterPlan;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParameterPlanTest {
+
+    private static final String[][] PARAMETERS = {
+            { "text", "java.lang.String" },
+            { "count", "java.lang.Integer" },
+            { "total", "java.lang.Long" },
+            { "amount", "java.math.BigDecimal" },
+            { "ratio", "java.lang.Double" },
+            { "active", "java.lang.Boolean" },
+            { "date", "java.util.Date" },
+            { "timestamp", "java.sql.Timestamp" },
+            { "day", "java.time.LocalDate" },
+            { "moment", "java.time.LocalDateTime" },
+            { "ids", "java.util.List" },
+            { "currency", "java.util.Currency" },
+            { "buffer", "java.lang.StringBuilder" } };
+
+    private static JasperReport report;
+
+    @BeforeClass
+    public static void compileReport() throws JRException {
+        final StringBuilder jrxml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"parameters\""
+                + " pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n");
+        for (final String[] parameter : PARAMETERS) {
+            jrxml.append("<parameter name=\"" + parameter[0] + "\" class=\"" + parameter[1] + "\"/>\n");
+        }
+        jrxml.append("</jasperReport>");
+        report = new JRJdtCompiler(new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance())).compileReport(JRXmlLoader
+                .load(new ByteArrayInputStream(jrxml.toString().getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static Map<String, Object> values(final Object... namesAndValues) {
+        final Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            values.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    @Test
+    public void should_convert_text_values() throws Exception {
+        final Date legacyDate = new SimpleDateFormat().parse(new SimpleDateFormat().format(new Date(0)));
+
+        final Map<String, Object> typed = ParameterPlan.of(report).convert(values("text", "Gotham", "count", "3", "total", "4000000000",
+                "amount", "12.30", "ratio", "1.5", "active", "true", "date", "2012-03-15T10:30:00", "timestamp", "2012-03-15 10:30:00.5",
+                "day", "2012-03-15", "moment", "2012-03-15T10:30", "ids", "1, 2,3", JRParameter.REPORT_LOCALE, "fr_FR",
+                JRParameter.REPORT_TIME_ZONE, "Europe/Paris"));
+
+        assertEquals("Gotham", typed.get("text"));
+        assertEquals(3, typed.get("count"));
+        assertEquals(4000000000L, typed.get("total"));
+        assertEquals(new BigDecimal("12.30"), typed.get("amount"));
+        assertEquals(1.5, typed.get("ratio"));
+        assertEquals(Boolean.TRUE, typed.get("active"));
+        assertEquals(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2012-03-15 10:30:00"), typed.get("date"));
+        assertEquals(Timestamp.valueOf("2012-03-15 10:30:00.5"), typed.get("timestamp"));
+        assertEquals(LocalDate.of(2012, 3, 15), typed.get("day"));
+        assertEquals(LocalDateTime.of(2012, 3, 15, 10, 30), typed.get("moment"));
+        assertEquals(Arrays.asList("1", "2", "3"), typed.get("ids"));
+        assertEquals(Locale.FRANCE, typed.get(JRParameter.REPORT_LOCALE));
+        assertEquals(TimeZone.getTimeZone("Europe/Paris"), typed.get(JRParameter.REPORT_TIME_ZONE));
+        // the default format of the previous versions is still understood
+        assertEquals(legacyDate, ParameterPlan.of(report).convert(values("date", new SimpleDateFormat().format(legacyDate))).get("date"));
+    }
+
+    @Test
+    public void should_keep_or_convert_typed_values_without_their_text() {
+        final Date date = new Date(1331803800000L);
+        final List<Integer> ids = Arrays.asList(1, 2);
+        final StringBuilder buffer = new StringBuilder("typed");
+
+        final Map<String, Object> typed = ParameterPlan.of(report).convert(values("date", date, "ids", ids, "buffer", buffer, "count", 3L,
+                "amount", 2.5, "total", new BigDecimal("7"), "timestamp", date, "day", date, "text", 42));
+
+        assertSame(date, typed.get("date"));
+        assertSame(ids, typed.get("ids"));
+        assertSame(buffer, typed.get("buffer"));
+        assertEquals(3, typed.get("count"));
+        assertEquals(new BigDecimal("2.5"), typed.get("amount"));
+        assertEquals(7L, typed.get("total"));
+        assertEquals(new Timestamp(date.getTime()), typed.get("timestamp"));
+        assertEquals(date.toInstant().atZone(TimeZone.getDefault().toZoneId()).toLocalDate(), typed.get("day"));
+        assertEquals("42", typed.get("text"));
+    }
+
+    @Test
+    public void should_leave_out_unknown_parameters_and_values_without_converter() {
+        final Map<String, Object> typed = ParameterPlan.of(report).convert(values("unknown", "1", "buffer", "text", "count", null));
+
+        assertTrue(typed.isEmpty());
+        assertSame(ParameterPlan.of(report), ParameterPlan.of(report));
+    }
+
+    @Test
+    public void should_reject_values_that_cannot_be_converted() {
+        for (final Map<String, Object> values : Arrays.asList(values("count", "three"), values("count", 2.5), values("total", 1e30),
+                values("date", "15 mars"), values("active", 1), values(JRParameter.REPORT_TIME_ZONE, "Nowhere/Gotham"))) {
+            try {
+                ParameterPlan.of(report).convert(values);
+                fail("Conversion should fail for " + values);
+            } catch (final IllegalArgumentException e) {
+                final String name = values.keySet().iterator().next();
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid parameter type for " + name + ": "));
+                assertTrue(e.getMessage(), e.getMessage().endsWith(" value is expected, current is " + values.get(name)));
+            }
+        }
+    }
+
+    @Test
+    public void should_use_converters_provided_as_services() {
+        final Map<String, ParameterConverter> converters = ParameterConverters.load(getClass().getClassLoader());
+
+        assertTrue(converters.get(Currency.class.getName()) instanceof CurrencyConverter);
+        assertFalse(ParameterConverters.getBuiltIn().containsKey(Currency.class.getName()));
+        assertSame(ParameterConverters.getBuiltIn().get(String.class.getName()), converters.get(String.class.getName()));
+        assertEquals(Currency.getInstance("EUR"), ParameterPlan.of(report).convert(values("currency", "eur")).get("currency"));
+    }
+
+    /**
+     * @return a class loader providing the given converter as a service
+     */
+    private static URLClassLoader providing(final Class<? extends ParameterConverter> converter) throws Exception {
+        final File root = Files.createTempDirectory("converters").toFile();
+        final File services = new File(root, "META-INF/services");
+        services.mkdirs();
+        Files.write(new File(services, ParameterConverter.class.getName()).toPath(), converter.getName().getBytes(StandardCharsets.UTF_8));
+        root.deleteOnExit();
+        return new URLClassLoader(new URL[] { root.toURI().toURL() }, ParameterPlanTest.class.getClassLoader());
+    }
+
+    private static Object convertBuffer(final ClassLoader classLoader) {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            final Object buffer = ParameterPlan.of(report).convert(values("buffer", "text")).get("buffer");
+            return buffer == null ? null : buffer.toString();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    @Test
+    public void should_use_the_converters_of_the_class_loader_converting_the_values() throws Exception {
+        try (URLClassLoader first = providing(FirstBufferConverter.class); URLClassLoader second = providing(SecondBufferConverter.class)) {
+            assertEquals("first text", convertBuffer(first));
+            assertEquals("second text", convertBuffer(second));
+            assertEquals(null, convertBuffer(ParameterPlanTest.class.getClassLoader()));
+            assertEquals("first text", convertBuffer(first));
+        }
+    }
+
+    public static class FirstBufferConverter implements ParameterConverter {
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return Collections.singleton(StringBuilder.class.getName());
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            return new StringBuilder("first ").append(value);
+        }
+    }
+
+    public static class SecondBufferConverter extends FirstBufferConverter {
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            return new StringBuilder("second ").append(value);
+        }
+    }
+
+    /**
+     * Registered in <code>META-INF/services/org.bonitasoft.connectors.jasper.ParameterConverter</code>.
+     */
+    public static class CurrencyConverter implements ParameterConverter {
+
+        @Override
+        public Set<String> getValueClassNames() {
+            return Collections.singleton(Currency.class.getName());
+        }
+
+        @Override
+        public Object convert(final Object value, final String valueClassName) {
+            return Currency.getInstance(value.toString().toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+import org.bonitasoft.connectors.jasper.JRJdtCompiler;
+import org.bonitasoft.connectors.jasper.ReportClassLoaders;
+import org.junit.Test;
+
+public class ReportClassLoadersTest {
+
+    private static final int SOAK_REPORTS = 100;
+
+    private static byte[] report(final int index) {
+        return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"soak" + index
+                + "\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n"
+                + "<title><band height=\"20\"><textField><reportElement x=\"0\" y=\"0\" width=\"200\" height=\"20\"/>"
+                + "<textFieldExpression><![CDATA[String.valueOf(" + index + ")]]></textFieldExpression></textField></band></title>\n"
+                + "</jasperReport>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JasperReport compile(final byte[] report) throws JRException {
+        return new JRJdtCompiler(new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance())).compileReport(JRXmlLoader
+                .load(new ByteArrayInputStream(report)));
+    }
+
+    private static String fill(final JasperReport report) throws JRException {
+        final JasperPrint print = JasperFillManager.fillReport(report, new HashMap<String, Object>(), new JREmptyDataSource(1));
+        return ((JRPrintText) print.getPages().get(0).getElements().get(0)).getFullText();
+    }
+
+    @Test
+    public void should_define_evaluator_class_once_for_all_fills() throws Exception {
+        final ReportClassLoaders loaders = ReportClassLoaders.getInstance();
+        final JasperReport report = compile(report(-1));
+        final long definedClasses = loaders.getDefinedClassCount();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("-1", fill(report));
+        }
+
+        assertEquals(definedClasses + 1, loaders.getDefinedClassCount());
+    }
+
+    private static String fillFrom(final JasperReport report, final ClassLoader classLoader) throws JRException {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            return fill(report);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    @Test
+    public void should_release_the_class_loader_a_cached_report_was_filled_from() throws Exception {
+        final JasperReport report = compile(report(-2));
+        URLClassLoader processClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        final WeakReference<ClassLoader> released = new WeakReference<ClassLoader>(processClassLoader);
+        assertEquals("-2", fillFrom(report, processClassLoader));
+        processClassLoader.close();
+        processClassLoader = null;
+
+        for (int i = 0; i < 10 && released.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertNull("the class loader is still reachable while the report is", released.get());
+        assertEquals("-2", fill(report));
+    }
+
+    @Test
+    public void should_keep_loaded_classes_flat_when_reports_are_released() throws Exception {
+        final ReportClassLoaders loaders = ReportClassLoaders.getInstance();
+        final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        // classes used by the compiler and the filler are loaded once, whatever the number of reports
+        fill(compile(report(SOAK_REPORTS)));
+        fill(compile(report(SOAK_REPORTS + 1)));
+        collectGarbage(loaders, Integer.MAX_VALUE);
+        final int reportsBefore = loaders.size();
+        final int classesBefore = classLoading.getLoadedClassCount();
+        final long definedClasses = loaders.getDefinedClassCount();
+
+        for (int i = 0; i < SOAK_REPORTS; i++) {
+            assertEquals(String.valueOf(i), fill(compile(report(i))));
+        }
+        assertEquals(definedClasses + SOAK_REPORTS, loaders.getDefinedClassCount());
+        collectGarbage(loaders, reportsBefore);
+
+        assertTrue("reports still holding classes: " + loaders.size(), loaders.size() <= reportsBefore);
+        final int classesAfter = classLoading.getLoadedClassCount();
+        assertTrue("loaded classes grew from " + classesBefore + " to " + classesAfter, classesAfter < classesBefore + SOAK_REPORTS / 4);
+    }
+
+    /**
+     * Collects garbage until the registry holds at most the given number of reports, the entries of released reports
+     * being dropped by the collection following the one that cleared them.
+     */
+    private static void collectGarbage(final ReportClassLoaders loaders, final int maxReports) throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(50);
+            if (loaders.size() <= maxReports && i > 1) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bonitasoft.connectors.jasper.ReportExportExecutor;
+import org.junit.Test;
+
+public class ReportExportExecutorTest {
+
+    private static Callable<String> export(final String format, final CountDownLatch started, final CountDownLatch release) {
+        return new Callable<String>() {
+
+            @Override
+            public String call() throws Exception {
+                started.countDown();
+                release.await(30, TimeUnit.SECONDS);
+                return format + " on " + (Thread.currentThread().getName().startsWith("jasper-report-export-") ? "pool" : "caller");
+            }
+        };
+    }
+
+    @Test
+    public void should_run_the_exports_at_the_same_time_and_keep_their_order() throws Exception {
+        final CountDownLatch started = new CountDownLatch(3);
+        // each export waits for the others to start: run one after the other, they would not finish
+        final List<Callable<String>> exports = Arrays.asList(export("pdf", started, started), export("xlsx", started, started),
+                export("csv", started, started));
+
+        assertEquals(Arrays.asList("pdf on pool", "xlsx on pool", "csv on pool"),
+                new ReportExportExecutor(3).exportAll(exports, TimeUnit.SECONDS.toNanos(30)));
+    }
+
+    @Test
+    public void should_fail_with_the_first_failure_and_interrupt_the_other_exports() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final List<Callable<String>> exports = new ArrayList<>();
+        exports.add(new Callable<String>() {
+
+            @Override
+            public String call() throws Exception {
+                started.await(30, TimeUnit.SECONDS);
+                throw new IOException("Disk full");
+            }
+        });
+        exports.add(new Callable<String>() {
+
+            @Override
+            public String call() throws Exception {
+                started.countDown();
+                try {
+                    Thread.sleep(30000);
+                } catch (final InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return "xlsx";
+            }
+        });
+
+        try {
+            new ReportExportExecutor(2).exportAll(exports, Long.MAX_VALUE);
+            fail("The first export fails");
+        } catch (final IOException e) {
+            assertEquals("Disk full", e.getMessage());
+        }
+        // the first failure cancels the exports still running
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void should_stop_waiting_for_the_exports_once_the_timeout_is_reached() throws Exception {
+        final CountDownLatch never = new CountDownLatch(1);
+        final List<Callable<String>> exports = Arrays.asList(export("pdf", new CountDownLatch(0), new CountDownLatch(0)),
+                export("xlsx", new CountDownLatch(1), never));
+        try {
+            new ReportExportExecutor(1).exportAll(exports, TimeUnit.SECONDS.toNanos(1));
+            fail("The xlsx export does not finish");
+        } catch (final TimeoutException e) {
+            assertEquals("The report was not exported within 1 seconds", e.getMessage());
+        }
+    }
+
+    @Test
+    public void should_interrupt_the_first_export_once_the_timeout_is_reached() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final List<Callable<String>> exports = new ArrayList<>();
+        exports.add(new Callable<String>() {
+
+            @Override
+            public String call() throws Exception {
+                try {
+                    Thread.sleep(30000);
+                } catch (final InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return "pdf";
+            }
+        });
+        exports.add(export("xlsx", new CountDownLatch(0), new CountDownLatch(0)));
+        try {
+            new ReportExportExecutor(2).exportAll(exports, TimeUnit.SECONDS.toNanos(1));
+            fail("The pdf export does not finish");
+        } catch (final TimeoutException e) {
+            assertEquals("The report was not exported within 1 seconds", e.getMessage());
+        }
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+}
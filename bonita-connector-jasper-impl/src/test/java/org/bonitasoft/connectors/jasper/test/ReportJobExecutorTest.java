@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bonitasoft.connectors.jasper.ReportJob;
+import org.bonitasoft.connectors.jasper.ReportJobExecutor;
+import org.bonitasoft.connectors.jasper.ReportJobListener;
+import org.junit.Test;
+
+public class ReportJobExecutorTest {
+
+    /**
+     * Keeps the outcome of the jobs, "completed" or the failure.
+     */
+    private static final class Outcomes implements ReportJobListener {
+
+        private final BlockingQueue<Object> outcomes = new LinkedBlockingQueue<>();
+
+        @Override
+        public void completed(final ReportJob job) {
+            outcomes.add("completed");
+        }
+
+        @Override
+        public void failed(final ReportJob job, final Exception cause) {
+            outcomes.add(cause);
+        }
+
+        Object next() throws InterruptedException {
+            return outcomes.poll(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static ReportJob job(final long timeoutSeconds, final CountDownLatch release) {
+        return new ReportJob(1L, "report", timeoutSeconds) {
+
+            @Override
+            protected void execute() throws Exception {
+                if (!release.await(60, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("never released");
+                }
+            }
+        };
+    }
+
+    @Test
+    public void should_interrupt_job_running_longer_than_its_timeout() throws Exception {
+        final ReportJobExecutor executor = new ReportJobExecutor(1, 10);
+        final Outcomes outcomes = new Outcomes();
+        final CountDownLatch released = new CountDownLatch(0);
+
+        executor.submit(job(1, new CountDownLatch(1)), Arrays.<ReportJobListener> asList(outcomes));
+        executor.submit(job(1, released), Arrays.<ReportJobListener> asList(outcomes));
+
+        final Object timedOut = outcomes.next();
+        assertTrue(String.valueOf(timedOut), timedOut instanceof TimeoutException);
+        assertTrue(((TimeoutException) timedOut).getCause() instanceof InterruptedException);
+        // the thread interrupted by the timeout goes on with the next job
+        assertEquals("completed", outcomes.next());
+    }
+
+    @Test
+    public void should_complete_job_ignoring_the_interrupt_of_its_timeout() throws Exception {
+        final ReportJobExecutor executor = new ReportJobExecutor(1, 10);
+        final Outcomes outcomes = new Outcomes();
+        final CountDownLatch deadlinePassed = new CountDownLatch(1);
+
+        executor.submit(new ReportJob(1L, "report", 1) {
+
+            @Override
+            protected void execute() throws Exception {
+                final long end = System.currentTimeMillis() + 1500;
+                while (System.currentTimeMillis() < end) {
+                    // busy, never checks the interrupt
+                }
+                try {
+                    checkDeadline();
+                } catch (final TimeoutException e) {
+                    deadlinePassed.countDown();
+                }
+            }
+        }, Arrays.<ReportJobListener> asList(outcomes));
+
+        assertEquals("completed", outcomes.next());
+        assertTrue(deadlinePassed.await(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void should_reject_jobs_once_the_queue_is_full() throws Exception {
+        final ReportJobExecutor executor = new ReportJobExecutor(1, 1);
+        final Outcomes outcomes = new Outcomes();
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.submit(job(0, release), Arrays.<ReportJobListener> asList(outcomes));
+        executor.submit(job(0, release), Collections.<ReportJobListener> emptyList());
+        final long deadline = System.currentTimeMillis() + 30000;
+        while (executor.getActiveCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, executor.getActiveCount());
+        assertEquals(1, executor.getQueueLength());
+
+        try {
+            executor.submit(job(0, release), Collections.<ReportJobListener> emptyList());
+            fail("The queue is full");
+        } catch (final RejectedExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("1 reports are already waiting"));
+        }
+        release.countDown();
+        assertEquals("completed", outcomes.next());
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.JRFiller;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+import org.bonitasoft.connectors.jasper.JRJdtCompiler;
+import org.bonitasoft.connectors.jasper.ReportLimits;
+import org.bonitasoft.connectors.jasper.ReportLimits.LimitExceededException;
+import org.junit.Test;
+
+public class ReportLimitsTest {
+
+    private static final String REPORT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"rows\""
+            + " pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n"
+            + "<detail><band height=\"20\"><staticText><reportElement x=\"0\" y=\"0\" width=\"500\" height=\"20\"/>"
+            + "<text><![CDATA[row]]></text></staticText></band></detail>\n</jasperReport>";
+
+    private JasperPrint fill(final ReportLimits limits, final int rows) throws Exception {
+        final JasperReport report = new JRJdtCompiler(new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance()))
+                .compileReport(JRXmlLoader.load(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8))));
+        final LocalJasperReportsContext fillContext = new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance());
+        limits.configure(fillContext, report);
+        return JRFiller.fill(fillContext, report, new HashMap<String, Object>(), new JREmptyDataSource(rows));
+    }
+
+    @Test
+    public void should_fill_a_report_within_the_limits() throws Exception {
+        // 40 rows of 20 pixels fit in a page
+        assertEquals(3, fill(new ReportLimits(3, 100, null), 100).getPages().size());
+        assertEquals(25, fill(new ReportLimits(null, null, null), 1000).getPages().size());
+    }
+
+    @Test
+    public void should_stop_a_report_with_too_many_pages() throws Exception {
+        try {
+            fill(new ReportLimits(5, null, null), 1000);
+            fail("The report has 25 pages");
+        } catch (final LimitExceededException e) {
+            assertEquals("The report has more than the limit of 5 pages", e.getMessage());
+        }
+    }
+
+    @Test
+    public void should_stop_a_report_reading_too_many_rows() throws Exception {
+        try {
+            fill(new ReportLimits(null, 50, null), 1000);
+            fail("The report reads 1000 rows");
+        } catch (final LimitExceededException e) {
+            assertEquals("The report reads more than the limit of 50 rows", e.getMessage());
+        }
+    }
+
+    @Test
+    public void should_stop_an_export_larger_than_the_limit() throws Exception {
+        final ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        final OutputStream limited = new ReportLimits(null, null, 1).limitSize(exported);
+        limited.write(new byte[1024 * 1024]);
+        try {
+            limited.write(1);
+            fail("The export is larger than 1 MB");
+        } catch (final LimitExceededException e) {
+            assertEquals("The exported report is larger than the limit of 1 MB", e.getMessage());
+        }
+        assertEquals(1024 * 1024, exported.size());
+        assertSame(exported, new ReportLimits(null, null, null).limitSize(exported));
+    }
+
+    @Test
+    public void should_keep_the_limits_of_the_server_as_upper_bounds() throws Exception {
+        System.setProperty(ReportLimits.MAX_PAGES_PROPERTY, "10");
+        try {
+            assertEquals(10, new ReportLimits(null, null, null).getMaxPages());
+            assertEquals(4, new ReportLimits(4, null, null).getMaxPages());
+            assertEquals(10, new ReportLimits(50, null, null).getMaxPages());
+        } finally {
+            System.clearProperty(ReportLimits.MAX_PAGES_PROPERTY);
+        }
+        assertEquals(50, new ReportLimits(50, null, null).getMaxPages());
+        assertEquals(0, new ReportLimits(null, null, null).getMaxPages());
+    }
+
+}
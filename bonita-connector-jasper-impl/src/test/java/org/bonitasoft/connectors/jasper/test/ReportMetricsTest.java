@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.bonitasoft.connectors.jasper.FillAdmission;
+import org.bonitasoft.connectors.jasper.ReportMetrics;
+import org.junit.Test;
+
+public class ReportMetricsTest {
+
+    @Test
+    public void should_expose_the_reports_in_progress_as_mbean_attributes() throws Exception {
+        ReportMetrics.register();
+        ReportMetrics.register();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(ReportMetrics.OBJECT_NAME);
+
+        final int activeFills = (Integer) server.getAttribute(name, "ActiveFills");
+        final FillAdmission.Permit permit = FillAdmission.getInstance().acquire(null, null);
+        try {
+            assertEquals(activeFills + 1, server.getAttribute(name, "ActiveFills"));
+        } finally {
+            permit.close();
+        }
+        assertEquals(activeFills, server.getAttribute(name, "ActiveFills"));
+        assertEquals(FillAdmission.getInstance().getQueueLength(), server.getAttribute(name, "WaitingFills"));
+        assertEquals(FillAdmission.getInstance().getAvailableMemory(), server.getAttribute(name, "AvailableMemory"));
+        assertEquals(0, server.getAttribute(name, "QueuedJobs"));
+        assertEquals(0, server.getAttribute(name, "QueuedExports"));
+    }
+
+}
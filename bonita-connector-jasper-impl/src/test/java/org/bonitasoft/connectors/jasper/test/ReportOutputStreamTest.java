@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.bonitasoft.connectors.jasper.ReportOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReportOutputStreamTest {
+
+    private static final String MEMORY_THRESHOLD_PROPERTY = "org.bonitasoft.connectors.jasper.output.memoryThreshold";
+
+    @Before
+    public void setUp() {
+        System.setProperty(MEMORY_THRESHOLD_PROPERTY, "100");
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(MEMORY_THRESHOLD_PROPERTY);
+    }
+
+    private static byte[] bytes(final int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    private static int countTemporaryFiles() {
+        final String[] files = new File(System.getProperty("java.io.tmpdir")).list();
+        int count = 0;
+        for (final String file : files) {
+            if (file.startsWith("jasperReport") && file.endsWith(".out")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void should_keep_small_output_in_memory() throws Exception {
+        final byte[] expected = bytes(60);
+        try (ReportOutputStream out = new ReportOutputStream()) {
+            out.write(expected, 0, 30);
+            out.write(expected, 30, 30);
+
+            final byte[] content = out.toByteArray();
+            assertArrayEquals(expected, content);
+            assertSame(content, out.toByteArray());
+        }
+    }
+
+    @Test
+    public void should_spill_large_output_to_a_file_deleted_on_close() throws Exception {
+        final int before = countTemporaryFiles();
+        final byte[] expected = bytes(1000);
+        final ReportOutputStream out = new ReportOutputStream();
+        for (int i = 0; i < 10; i++) {
+            out.write(Arrays.copyOfRange(expected, i * 100, (i + 1) * 100));
+        }
+        assertEquals(before + 1, countTemporaryFiles());
+
+        assertEquals(1000, out.size());
+        assertArrayEquals(expected, out.toByteArray());
+        out.close();
+        assertEquals(before, countTemporaryFiles());
+    }
+
+    @Test
+    public void should_write_single_bytes_in_memory_and_once_spilled() throws Exception {
+        final int before = countTemporaryFiles();
+        final byte[] expected = bytes(1000);
+        try (ReportOutputStream out = new ReportOutputStream()) {
+            // the memory threshold of the test is 100 bytes
+            for (int i = 0; i < 100; i++) {
+                out.write(expected[i]);
+            }
+            assertEquals(before, countTemporaryFiles());
+            for (int i = 100; i < expected.length; i++) {
+                out.write(expected[i]);
+            }
+            assertEquals(before + 1, countTemporaryFiles());
+
+            assertEquals(1000, out.size());
+            assertArrayEquals(expected, out.toByteArray());
+        }
+        assertEquals(before, countTemporaryFiles());
+    }
+
+}
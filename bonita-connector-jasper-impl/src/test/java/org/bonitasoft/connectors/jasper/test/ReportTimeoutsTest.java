@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.concurrent.TimeoutException;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.LocalJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+import org.bonitasoft.connectors.jasper.JRJdtCompiler;
+import org.bonitasoft.connectors.jasper.ReportTimeouts;
+import org.junit.Test;
+
+public class ReportTimeoutsTest {
+
+    private static final String SLOW_REPORT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" name=\"slow\""
+            + " pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">\n"
+            + "<queryString><![CDATA[select id from numbers]]></queryString>\n"
+            + "<field name=\"ID\" class=\"java.lang.Integer\"/>\n"
+            + "<detail><band height=\"20\"><textField><reportElement x=\"0\" y=\"0\" width=\"500\" height=\"20\"/>"
+            + "<textFieldExpression><![CDATA[" + ReportTimeoutsTest.class.getName() + ".slow($F{ID})]]></textFieldExpression>"
+            + "</textField></band></detail>\n</jasperReport>";
+
+    /**
+     * Called by the detail band of the slow report.
+     */
+    public static String slow(final Integer id) {
+        try {
+            Thread.sleep(100);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return String.valueOf(id);
+    }
+
+    @Test
+    public void should_set_the_smallest_query_timeout_on_statements() throws Exception {
+        final Connection connection = mock(Connection.class);
+        final PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement("select 1")).thenReturn(statement);
+
+        new ReportTimeouts(0, 5, 0).limitQueries(connection).prepareStatement("select 1");
+        verify(statement).setQueryTimeout(5);
+
+        final PreparedStatement other = mock(PreparedStatement.class);
+        when(connection.prepareStatement("select 2")).thenReturn(other);
+        new ReportTimeouts(2, 5, 0).limitQueries(connection).prepareStatement("select 2");
+        verify(other).setQueryTimeout(2);
+
+        assertSame(connection, new ReportTimeouts(0, 0, 0).limitQueries(connection));
+    }
+
+    @Test
+    public void should_fail_once_the_overall_deadline_has_passed() throws Exception {
+        final ReportTimeouts timeouts = new ReportTimeouts(1, null, null);
+        timeouts.check("the fill");
+        Thread.sleep(1100);
+
+        try {
+            timeouts.check("the export");
+            fail("The deadline has passed");
+        } catch (final TimeoutException e) {
+            assertEquals("The report was not generated within 1 seconds: the export could not start", e.getMessage());
+        }
+        assertEquals(Long.MAX_VALUE, new ReportTimeouts(0, null, null).getRemainingNanos());
+    }
+
+    @Test
+    public void should_cancel_a_fill_running_longer_than_the_fill_timeout() throws Exception {
+        final JasperReport report = new JRJdtCompiler(new LocalJasperReportsContext(DefaultJasperReportsContext.getInstance()))
+                .compileReport(JRXmlLoader.load(new ByteArrayInputStream(SLOW_REPORT.getBytes(StandardCharsets.UTF_8))));
+        Class.forName("org.hsqldb.jdbcDriver");
+        try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:timeouts", "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table numbers (id INTEGER)");
+                for (int i = 0; i < 100; i++) {
+                    statement.execute("insert into numbers values (" + i + ")");
+                }
+            }
+            final ReportTimeouts timeouts = new ReportTimeouts(60, 30, 1);
+            final long start = System.currentTimeMillis();
+            try {
+                timeouts.fill(DefaultJasperReportsContext.getInstance(), report, new HashMap<String, Object>(),
+                        timeouts.limitQueries(connection));
+                fail("The fill should have been cancelled");
+            } catch (final TimeoutException e) {
+                assertEquals("The report fill did not finish within 1 seconds", e.getMessage());
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("drop table numbers");
+                }
+            }
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+}
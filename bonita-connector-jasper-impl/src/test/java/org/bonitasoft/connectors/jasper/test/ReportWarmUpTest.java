@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2026 BonitaSoft S.A.
+ * BonitaSoft, 31 rue Gustave Eiffel - 38000 Grenoble
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2.0 of the License, or
+ * (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.bonitasoft.connectors.jasper.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.jasperreports.engine.JasperReport;
+
+import org.bonitasoft.connectors.jasper.CompiledReportCache;
+import org.bonitasoft.connectors.jasper.ReportWarmUp;
+import org.junit.Test;
+
+public class ReportWarmUpTest {
+
+    @Test
+    public void should_compile_reports_in_background_into_the_cache() throws Exception {
+        final byte[] jrxml = Files.readAllBytes(new File("src/test/resources/report1.jrxml").toPath());
+        final byte[] invalid = "<jasperReport>".getBytes(StandardCharsets.UTF_8);
+        CompiledReportCache.getInstance().clear();
+
+        final List<JasperReport> reports = new ReportWarmUp(2).submit(Arrays.asList(jrxml, invalid), true).get(60,
+                TimeUnit.SECONDS);
+
+        assertEquals(2, reports.size());
+        assertNotNull(reports.get(0));
+        assertSame(reports.get(0), CompiledReportCache.getInstance().get(CompiledReportCache.key(jrxml)));
+        assertNull(reports.get(1));
+        assertNull(CompiledReportCache.getInstance().get(CompiledReportCache.key(invalid)));
+    }
+
+    @Test
+    public void should_reuse_report_already_in_the_cache() throws Exception {
+        final byte[] jrxml = Files.readAllBytes(new File("src/test/resources/report1.jrxml").toPath());
+        CompiledReportCache.getInstance().clear();
+        final JasperReport report = ReportWarmUp.warmUp(Arrays.asList(jrxml), false).get(0);
+
+        final List<JasperReport> reports = ReportWarmUp.getInstance().submit(Arrays.asList(jrxml), false).get(60,
+                TimeUnit.SECONDS);
+
+        assertSame(report, reports.get(0));
+        assertEquals(1, CompiledReportCache.getInstance().getMissCount());
+    }
+
+}